@@ -41,16 +41,17 @@ public interface DatabaseAccessDao {
     ArrayList<HotelRoom> retrieveAllHotelRooms();
 
     /**
-     * This method allows the booking of a {@code HotelRoom}.
+     * This method allows the booking of a {@code HotelRoom}. The room is
+     * checked and booked in one call to the database, which fails the booking
+     * if the room has already been booked.
      *
      * @param recordNumber The record number of the desired {@code HotelRoom}.
      * @param customerName The CSR number of the booker.
      * @param endDate      The string representation of the date when the
      *                     booking is due to expire.
-     * @param lockCookie   The key to lock the record with.
      * @return True, if the booking was successful.
      * False, if the booking was not successful.
      */
     boolean bookHotelRoom(long recordNumber, String customerName,
-                          String endDate, long lockCookie);
+                          String endDate);
 }
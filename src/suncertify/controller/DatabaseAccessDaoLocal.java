@@ -1,6 +1,7 @@
 package suncertify.controller;
 
 import suncertify.db.Data;
+import suncertify.db.DatabaseRecord;
 import suncertify.db.RecordNotFoundException;
 import suncertify.model.HotelRoom;
 
@@ -36,27 +37,7 @@ public class DatabaseAccessDaoLocal implements DatabaseAccessDao {
     @Override
     public ArrayList<HotelRoom> findHotelRooms(String... searchStrings) {
 
-        long[] recordNumbers =
-                databaseAccessFacade.findByCriteria(searchStrings);
-        ArrayList<HotelRoom> hotelRooms = null;
-
-        for (long recordNumber : recordNumbers) {
-
-            HotelRoom hotelRoom = retrieveHotelRoom(recordNumber);
-
-            if (hotelRoom != null) {
-
-                // Initialise the hotelRooms ArrayList the first time we find a
-                // hotelRoom to add to the list.
-                if (hotelRooms == null) {
-                    hotelRooms = new ArrayList<>();
-                }
-
-                hotelRooms.add(hotelRoom);
-            }
-        }
-
-        return hotelRooms;
+        return toHotelRooms(databaseAccessFacade.findAndRead(searchStrings));
     }
 
     /**
@@ -84,90 +65,64 @@ public class DatabaseAccessDaoLocal implements DatabaseAccessDao {
     public ArrayList<HotelRoom> retrieveAllHotelRooms() {
 
         ArrayList<HotelRoom> hotelRooms = new ArrayList<>();
-        HotelRoom tempHotelRoom;
-
-        for (long recordNumber = 0;
-             (tempHotelRoom = retrieveHotelRoom(recordNumber)) != null;
-             recordNumber++) {
 
-            hotelRooms.add(tempHotelRoom);
+        for (DatabaseRecord databaseRecord :
+                databaseAccessFacade.readAllRecords(0, 0)) {
+            hotelRooms.add(new HotelRoom(databaseRecord.getFields()));
         }
 
         return hotelRooms;
     }
 
     /**
-     * This method allows the booking of a {@code HotelRoom}.
+     * This method allows the booking of a {@code HotelRoom}. The room is
+     * checked and booked in one call to the database, which fails the booking
+     * if the room has already been booked.
      *
      * @param recordNumber The record number of the desired {@code HotelRoom}.
      * @param customerName The CSR number of the booker.
      * @param endDate      The string representation of the date when the
      *                     booking is due to expire.
-     * @param lockCookie   The key to lock the record with.
      * @return True, if the booking was successful.
      * False, if the booking was not successful.
      */
     @Override
     public boolean bookHotelRoom(long recordNumber, String customerName,
-                                 String endDate, long lockCookie) {
+                                 String endDate) {
 
-        HotelRoom hotelRoomToBook;
-
-        if ((hotelRoomToBook = retrieveHotelRoom(recordNumber)) == null) {
+        try {
+            return databaseAccessFacade.bookRoom(recordNumber, customerName,
+                    endDate);
+        } catch (RecordNotFoundException e) {
             return false;
         }
-
-        hotelRoomToBook.setOwnerName(customerName);
-        hotelRoomToBook.setDate(endDate);
-
-        return updateHotelRoom(recordNumber, hotelRoomToBook, lockCookie);
     }
 
     // ----- Private Methods -----
 
     /**
-     * Retrieves a {@code HotelRoom} object from the database.
+     * Makes {@code HotelRoom} objects of the records read from the database.
      *
-     * @param recordNumber The record number of the desired {@code HotelRoom}.
-     * @return The {@code HotelRoom} object that corresponds to the
-     * {@code recordNumber}. Or NULL if there was a problem retrieving
-     * the record from the database.
+     * @param databaseRecords The records read from the database.
+     * @return An ArrayList of the {@code HotelRoom} objects. Or NULL if there
+     * are no records.
      */
-    private HotelRoom retrieveHotelRoom(long recordNumber) {
+    private ArrayList<HotelRoom> toHotelRooms(
+            DatabaseRecord[] databaseRecords) {
 
-        try {
-            String[] hotelRoomFieldsStrings =
-                    databaseAccessFacade.readRecord(recordNumber);
-            if (hotelRoomFieldsStrings == null) {
-                return null;
-            }
-            return new HotelRoom(hotelRoomFieldsStrings);
-        } catch (RecordNotFoundException e) {
-            return null;
-        }
-    }
+        ArrayList<HotelRoom> hotelRooms = null;
 
-    /**
-     * Updates a {@code HotelRoom} record in the database.
-     *
-     * @param recordNumber     The record number of the desired
-     *                         {@code HotelRoom}.
-     * @param updatedHotelRoom The {@code HotelRoom} pojo to Overwrite the
-     *                         existing record.
-     * @param lockCookie       The key to lock the record with.
-     * @return True, if the update was successful.
-     * False, if the update was not successful.
-     */
-    private boolean updateHotelRoom(long recordNumber,
-                                    HotelRoom updatedHotelRoom,
-                                    long lockCookie) {
+        for (DatabaseRecord databaseRecord : databaseRecords) {
 
-        try {
-            databaseAccessFacade.updateRecord(recordNumber,
-                    updatedHotelRoom.toStringArray(), lockCookie);
-            return true;
-        } catch (RecordNotFoundException e) {
-            return false;
+            // Initialise the hotelRooms ArrayList the first time we find a
+            // hotelRoom to add to the list.
+            if (hotelRooms == null) {
+                hotelRooms = new ArrayList<>();
+            }
+
+            hotelRooms.add(new HotelRoom(databaseRecord.getFields()));
         }
+
+        return hotelRooms;
     }
 }
@@ -1,9 +1,11 @@
 package suncertify.controller;
 
+import suncertify.db.DatabaseRecord;
 import suncertify.db.RecordNotFoundException;
 import suncertify.model.HotelRoom;
 import suncertify.rmi.DatabaseAccessRemote;
 import suncertify.rmi.RmiClientManager;
+import suncertify.utilities.UrlyBirdApplicationConstants;
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
@@ -22,6 +24,13 @@ public class DatabaseAccessDaoRemote implements DatabaseAccessDao {
      */
     private final DatabaseAccessRemote databaseAccessRemote;
 
+    /**
+     * The generation of the record numbers that the last record number was
+     * got in. The server renumbers the records when it compacts the database
+     * file, and refuses to book a record number from an older generation.
+     */
+    private volatile long compactionGeneration;
+
     /**
      * The default constructor for the {@code DatabaseAccessDaoRemote} class.
      */
@@ -41,29 +50,8 @@ public class DatabaseAccessDaoRemote implements DatabaseAccessDao {
     public ArrayList<HotelRoom> findHotelRooms(String... searchStrings) {
 
         try {
-            long[] recordNumbers =
-                    databaseAccessRemote.findByCriteria(searchStrings);
-            ArrayList<HotelRoom> hotelRooms = null;
-
-            for (long recordNumber : recordNumbers) {
-
-                HotelRoom hotelRoom = retrieveHotelRoom(recordNumber);
-
-                if (hotelRoom != null) {
-
-                    /**
-                     * Initialise the hotelRooms ArrayList the first time we
-                     * find a hotelRoom to add to the list.
-                     */
-                    if (hotelRooms == null) {
-                        hotelRooms = new ArrayList<>();
-                    }
-
-                    hotelRooms.add(hotelRoom);
-                }
-            }
-
-            return hotelRooms;
+            return toHotelRooms(databaseAccessRemote
+                    .findAndRead(searchStrings).getRecords());
 
         } catch (RemoteException e) {
             return null;
@@ -82,6 +70,8 @@ public class DatabaseAccessDaoRemote implements DatabaseAccessDao {
     @Override
     public long getRecordPositionInDatabase(String... recordNameAndLocation) {
         try {
+            compactionGeneration =
+                    databaseAccessRemote.getCompactionGeneration();
             return (int) databaseAccessRemote.findByCriteria(
                     recordNameAndLocation)[0];
         } catch (RemoteException e) {
@@ -99,94 +89,83 @@ public class DatabaseAccessDaoRemote implements DatabaseAccessDao {
     public ArrayList<HotelRoom> retrieveAllHotelRooms() {
 
         ArrayList<HotelRoom> hotelRooms = new ArrayList<>();
-        HotelRoom tempHotelRoom;
+        DatabaseRecord[] page;
+        long firstRecordNumber = 0;
 
-        for (long recordNumber = 0;
-             (tempHotelRoom = retrieveHotelRoom(recordNumber)) != null;
-             recordNumber++) {
+        try {
+            do {
+                page = databaseAccessRemote.readAllRecords(firstRecordNumber,
+                        UrlyBirdApplicationConstants.RMI_RECORDS_PAGE_SIZE)
+                        .getRecords();
+
+                for (DatabaseRecord databaseRecord : page) {
+                    hotelRooms.add(new HotelRoom(databaseRecord.getFields()));
+                    firstRecordNumber = databaseRecord.getRecordNumber() + 1;
+                }
+            } while (page.length
+                    == UrlyBirdApplicationConstants.RMI_RECORDS_PAGE_SIZE);
+
+        } catch (RemoteException e) {
 
-            hotelRooms.add(tempHotelRoom);
+            System.out.println("Error getting all the hotel rooms.");
+            e.printStackTrace();
         }
 
         return hotelRooms;
     }
 
     /**
-     * This method allows the booking of a {@code HotelRoom}.
+     * This method allows the booking of a {@code HotelRoom}. The room is
+     * checked and booked in one call to the database, which fails the booking
+     * if the room has already been booked, or if the database was compacted
+     * since the record number was got, as it may now be another room's.
      *
      * @param recordNumber The record number of the desired {@code HotelRoom}.
      * @param customerName The CSR number of the booker.
      * @param endDate      The string representation of the date when the
      *                     booking is due to expire.
-     * @param lockCookie   The key to lock the record with.
      * @return True, if the booking was successful.
      * False, if the booking was not successful.
      */
     @Override
     public boolean bookHotelRoom(long recordNumber, String customerName,
-                                 String endDate, long lockCookie) {
-
-        HotelRoom hotelRoomToBook;
+                                 String endDate) {
 
-        if ((hotelRoomToBook = retrieveHotelRoom(recordNumber)) == null) {
+        try {
+            return databaseAccessRemote.bookRoom(recordNumber, customerName,
+                    endDate, compactionGeneration);
+        } catch (RecordNotFoundException e) {
+            return false;
+        } catch (RemoteException e) {
             return false;
         }
-
-        hotelRoomToBook.setOwnerName(customerName);
-        hotelRoomToBook.setDate(endDate);
-
-        return updateHotelRoom(recordNumber, hotelRoomToBook, lockCookie);
     }
 
     // ----- Private Methods -----
 
     /**
-     * Retrieves a {@code HotelRoom} object from the database.
+     * Makes {@code HotelRoom} objects of the records read from the database.
      *
-     * @param recordNumber The record number of the desired {@code HotelRoom}.
-     * @return The {@code HotelRoom} object that corresponds to the
-     * {@code recordNumber}. Or NULL if there was a problem retrieving
-     * the record from the database.
+     * @param databaseRecords The records read from the database.
+     * @return An ArrayList of the {@code HotelRoom} objects. Or NULL if there
+     * are no records.
      */
-    private HotelRoom retrieveHotelRoom(long recordNumber) {
+    private ArrayList<HotelRoom> toHotelRooms(
+            DatabaseRecord[] databaseRecords) {
 
-        try {
-            String[] hotelRoomFieldsStrings =
-                    databaseAccessRemote.readRecord(recordNumber);
-            if (hotelRoomFieldsStrings == null) {
-                return null;
-            }
-            return new HotelRoom(hotelRoomFieldsStrings);
-        } catch (RecordNotFoundException e) {
-            return null;
-        } catch (RemoteException e) {
-            return null;
-        }
-    }
+        ArrayList<HotelRoom> hotelRooms = null;
 
-    /**
-     * Updates a {@code HotelRoom} record in the database.
-     *
-     * @param recordNumber     The record number of the desired
-     *                         {@code HotelRoom}.
-     * @param updatedHotelRoom The {@code HotelRoom} pojo to Overwrite the
-     *                         existing record.
-     * @param lockCookie       The key to lock the record with.
-     * @return True, if the update was successful.
-     * False, if the update was not successful.
-     */
-    private boolean updateHotelRoom(long recordNumber,
-                                    HotelRoom updatedHotelRoom,
-                                    long lockCookie) {
+        for (DatabaseRecord databaseRecord : databaseRecords) {
 
-        try {
-            databaseAccessRemote.updateRecord(recordNumber,
-                    updatedHotelRoom.toStringArray(), lockCookie);
-            return true;
-        } catch (RecordNotFoundException e) {
-            return false;
-        } catch (RemoteException e) {
-            return false;
+            // Initialise the hotelRooms ArrayList the first time we find a
+            // hotelRoom to add to the list.
+            if (hotelRooms == null) {
+                hotelRooms = new ArrayList<>();
+            }
+
+            hotelRooms.add(new HotelRoom(databaseRecord.getFields()));
         }
+
+        return hotelRooms;
     }
 }
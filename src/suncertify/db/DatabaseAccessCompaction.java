@@ -0,0 +1,276 @@
+package suncertify.db;
+
+import suncertify.utilities.UrlyBirdApplicationConstants;
+import suncertify.utilities.UrlyBirdApplicationObjectsFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class has the logic for compacting the database file. Deleting a record
+ * only sets its flag, so over time the database file fills up with deleted
+ * records, which every scan of the file has to read past.
+ * <p/>
+ * A compaction writes the valid records, in order, to a copy of the database
+ * file and renames the copy over the database file. The records are
+ * renumbered, so locking is suspended while the copy is written, but the
+ * records can be read and searched throughout.
+ * <p/>
+ * Each compaction starts a new generation of record numbers. A client that
+ * keeps record numbers, as a networked client does, gives the generation it
+ * got them in when it locks or books a record, and a record number from an
+ * older generation is refused, rather than locking or booking whichever
+ * record now has that number. The check is made once the record is locked,
+ * and a compaction waits for every record to be unlocked, so the generation
+ * can not change between the check and the write.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseAccessCompaction {
+
+    // The suffix of the copy of the database file, while it is written.
+    private static final String COMPACTED_FILE_SUFFIX = ".compacting";
+    // The record number of a deleted record in the record number mapping.
+    private static final long DELETED_RECORD_NUMBER = -1;
+    // How long a compaction waits for the locked records to be unlocked.
+    private static final long UNLOCK_TIMEOUT_MILLISECONDS = 10000;
+
+    // The record number mapping of the last compaction.
+    private static volatile long[] newRecordNumbers = new long[0];
+    // The number of compactions since the database file was opened.
+    private static volatile long compactionGeneration;
+
+    /**
+     * Compacts the database file, removing the deleted records. The valid
+     * records keep their order, but are renumbered from zero.
+     *
+     * @return The new record numbers, indexed by the old record numbers. The
+     * new record number of a deleted record is -1. Or NULL if the database
+     * file could not be compacted, or the locked records were not unlocked
+     * within ten seconds, in which case it is unchanged.
+     */
+    public static synchronized long[] compactDatabase() {
+
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
+
+        try {
+            if (!databaseAccessLockManager.suspendLocking(
+                    UNLOCK_TIMEOUT_MILLISECONDS)) {
+                System.out.println("The records were not unlocked in time "
+                        + "for the compaction.");
+                return null;
+            }
+        } catch (InterruptedException e) {
+            System.out.println(
+                    "Interrupted waiting for the records to be unlocked.");
+            e.printStackTrace();
+            return null;
+        }
+
+        Path databaseFile = Paths.get(UrlyBirdApplicationObjectsFactory
+                .getUrlyBirdApplicationProperties()
+                .getProperty(UrlyBirdApplicationConstants
+                        .PROPERTY_FILE_KEY_PATH_TO_DATABASE_FILE));
+        Path compactedDatabaseFile = databaseFile.resolveSibling(
+                databaseFile.getFileName() + COMPACTED_FILE_SUFFIX);
+
+        try {
+            long[] recordNumberMapping =
+                    writeValidRecords(compactedDatabaseFile);
+
+            DatabaseFileStorage.replaceDatabaseFile(
+                    compactedDatabaseFile, databaseFile);
+            DatabaseFileUtils.getInstance().updateNumberOfRecordsInDatabase();
+            DatabaseAccessIndexManager.rebuildIndexes();
+            DatabaseRecordVersions.rebuildVersions();
+
+            newRecordNumbers = recordNumberMapping;
+            compactionGeneration++;
+            return recordNumberMapping;
+
+        } catch (IOException e) {
+
+            System.out.println("Error when compacting the database file.");
+            e.printStackTrace();
+            deleteCompactedDatabaseFile(compactedDatabaseFile);
+            return null;
+
+        } finally {
+
+            databaseAccessLockManager.resumeLocking();
+        }
+    }
+
+    /**
+     * Gets the record number mapping of the last compaction, so a record
+     * number that was read before the compaction can be translated.
+     *
+     * @return The new record numbers, indexed by the old record numbers. The
+     * new record number of a deleted record is -1. The array is empty if the
+     * database file has not been compacted.
+     */
+    public static long[] getNewRecordNumbers() {
+        return Arrays.copyOf(newRecordNumbers, newRecordNumbers.length);
+    }
+
+    /**
+     * Gets the generation of the record numbers, which is the number of
+     * compactions since the database file was opened. The record numbers a
+     * client reads are only good in the generation they were read in.
+     *
+     * @return The generation of the record numbers.
+     */
+    public static long getCompactionGeneration() {
+        return compactionGeneration;
+    }
+
+    /**
+     * Checks that a record number was read in the current generation of record
+     * numbers, so it is still the number of the record the client read. The
+     * record must be locked, so a compaction can not start a new generation
+     * before the record is written.
+     *
+     * @param recNo                The record number to check.
+     * @param compactionGeneration The generation the record number was read
+     *                             in.
+     * @throws RecordNotFoundException If the record number was read before
+     *                                 the last compaction.
+     */
+    public static void isCurrentCompactionGeneration(long recNo,
+                                                     long compactionGeneration)
+            throws RecordNotFoundException {
+
+        if (compactionGeneration != DatabaseAccessCompaction
+                .compactionGeneration) {
+            throw new RecordNotFoundException("Record " + recNo
+                    + " was read before the database was compacted.");
+        }
+    }
+
+    /**
+     * Locks a record, like {@code lockRecord(recNo, timeoutMilliseconds)}, if
+     * the record number was read in the current generation of record numbers.
+     * Otherwise the record is unlocked again, and is not handed out.
+     *
+     * @param recNo                the record number to lock
+     * @param timeoutMilliseconds  how long to wait for the record, a timeout
+     *                             of zero, or less, does not wait at all
+     * @param compactionGeneration the generation the record number was read
+     *                             in
+     * @return The cookie of the lock.
+     * @throws RecordNotFoundException    When locating a record that does not
+     *                                    exist, or had been previously
+     *                                    deleted, or if the record number was
+     *                                    read before the last compaction.
+     * @throws RecordLockTimeoutException If the record was not unlocked in
+     *                                    time.
+     */
+    public static long lockRecord(long recNo, long timeoutMilliseconds,
+                                  long compactionGeneration)
+            throws RecordNotFoundException, RecordLockTimeoutException {
+
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
+        long lockCookie =
+                databaseAccessLockManager.lock(recNo, timeoutMilliseconds);
+
+        try {
+            isCurrentCompactionGeneration(recNo, compactionGeneration);
+        } catch (RecordNotFoundException e) {
+            databaseAccessLockManager.unlock(recNo, lockCookie);
+            throw e;
+        }
+
+        return lockCookie;
+    }
+
+    // ---------- Private Methods ----------
+
+    /**
+     * Writes the header and the valid records of the database file to
+     * {@code compactedDatabaseFile}, and forces them to the disk.
+     *
+     * @param compactedDatabaseFile The file to write the records to.
+     * @return The new record numbers, indexed by the old record numbers.
+     * @throws IOException If there is a problem reading the database file or
+     *                     writing the compacted file.
+     */
+    private static long[] writeValidRecords(Path compactedDatabaseFile)
+            throws IOException {
+
+        DatabaseFileScanner databaseFileScanner = new DatabaseFileScanner();
+        DatabaseFileUtils databaseFileUtils = DatabaseFileUtils.getInstance();
+        long[] recordNumberMapping = new long[
+                (int) databaseFileUtils.getNumberOfRecordsInDatabase()];
+        Arrays.fill(recordNumberMapping, DELETED_RECORD_NUMBER);
+        long newRecordNumber = 0;
+
+        FileChannel compactedFileChannel = FileChannel.open(
+                compactedDatabaseFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+
+        try {
+            ByteBuffer header = ByteBuffer.allocate(
+                    (int) databaseFileUtils.getHeaderOffset());
+            DatabaseFileStorage.getInstance().read(header, 0);
+            header.flip();
+            writeFully(compactedFileChannel, header);
+
+            ByteBuffer block = ByteBuffer.allocate(
+                    DatabaseFileScanner.RECORDS_PER_BLOCK
+                            * DatabaseFileSchema.RECORD_LENGTH);
+
+            while (databaseFileScanner.nextRecord()) {
+
+                if (!databaseFileScanner.isValidRecord()) continue;
+
+                recordNumberMapping[(int) databaseFileScanner
+                        .getRecordNumber()] = newRecordNumber++;
+                databaseFileScanner.copyRecord(block);
+
+                if (!block.hasRemaining()) {
+                    block.flip();
+                    writeFully(compactedFileChannel, block);
+                    block.clear();
+                }
+            }
+
+            block.flip();
+            writeFully(compactedFileChannel, block);
+            compactedFileChannel.force(true);
+
+        } finally {
+
+            compactedFileChannel.close();
+        }
+
+        return recordNumberMapping;
+    }
+
+    private static void writeFully(FileChannel fileChannel, ByteBuffer buffer)
+            throws IOException {
+
+        while (buffer.hasRemaining()) {
+            fileChannel.write(buffer);
+        }
+    }
+
+    private static void deleteCompactedDatabaseFile(
+            Path compactedDatabaseFile) {
+
+        try {
+            Files.deleteIfExists(compactedDatabaseFile);
+        } catch (IOException e) {
+            System.out.println("Error deleting the compacted database file.");
+            e.printStackTrace();
+        }
+    }
+}
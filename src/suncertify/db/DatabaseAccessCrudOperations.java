@@ -1,12 +1,11 @@
 package suncertify.db;
 
-import suncertify.utilities.UrlyBirdApplicationConstants;
-import suncertify.utilities.UrlyBirdApplicationObjectsFactory;
-
-import java.io.ByteArrayOutputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * This class handles the CRUD operations on the database file. With the methods
@@ -21,73 +20,46 @@ class DatabaseAccessCrudOperations {
     // ---------- Public Methods ----------
 
     /**
-     * Creates a new record in the database. Inserts the given data, and returns
-     * the record number of the new record.
+     * Creates a new record in the database, reusing the space of a deleted
+     * record when there is one. Inserts the given data, and returns the record
+     * number of the new record.
      *
      * @param data The string array representation of a database record.
      * @return The record number of the position that the record was created.
      * @throws DuplicateKeyException When trying to create a record that already
      *                               exists in the database.
      */
-    public static synchronized long createRecord(String[] data)
+    public static long createRecord(String[] data)
             throws DuplicateKeyException {
 
-        // Search on the name and location fields of the data object.
-        if (DatabaseAccessSearch.findByCriteria(
-                new String[]{data[0], data[1]}).length != 0) {
-            String record = "";
-            for (String field : data) record += field + ", ";
-
-            throw new DuplicateKeyException("The record "
-                    + record.substring(0, record.length() - 2)
-                    + " already exists in the database.");
-        }
-
-        DatabaseFileUtils databaseFileUtils = DatabaseFileUtils.getInstance();
-        databaseFileUtils.updateNumberOfRecordsInDatabase();
-        long positionToInsertRecord =
-                databaseFileUtils.getNumberOfRecordsInDatabase();
-        long lockCookie = 0;
-
-        try {
-            lockCookie = DatabaseAccessLockManager
-                    .getInstance()
-                    .lockRecordWhenCreatingNewRecord(positionToInsertRecord);
-        } catch (RecordNotFoundException ignored) {
-        }
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
+        databaseAccessLockManager.startCreatingRecord();
 
         try {
-            RandomAccessFile databaseRandomAccessFile =
-                    UrlyBirdApplicationObjectsFactory
-                            .getDatabaseRandomAccessFile();
-            databaseRandomAccessFile.seek(
-                    distanceToSeek(positionToInsertRecord, databaseFileUtils));
-            databaseRandomAccessFile.writeByte(
-                    DatabaseFileSchema.VALID_RECORD_FLAG);
-            databaseRandomAccessFile.write(stringArrayAsByteArray(data));
-
-            databaseRandomAccessFile.close();
-
-        } catch (IOException e) {
+            // Reserve the name and location of the data object, so no other
+            // record can be created with them while this one is written.
+            if (!DatabaseAccessIndexManager.getInstance().reserveKey(data)) {
+                String record = "";
+                for (String field : data) record += field + ", ";
+
+                throw new DuplicateKeyException("The record "
+                        + record.substring(0, record.length() - 2)
+                        + " already exists in the database.");
+            }
 
-            System.out.println("Error when creating new record.");
-            e.printStackTrace();
+            return writeNewRecord(data);
 
         } finally {
 
-            databaseFileUtils.updateNumberOfRecordsInDatabase();
-            DatabaseAccessLockManager
-                    .getInstance()
-                    .unlockRecordWhenCreatingOrDeletingRecord(
-                            positionToInsertRecord, lockCookie);
+            databaseAccessLockManager.finishCreatingRecord();
         }
-
-        return positionToInsertRecord;
     }
 
     /**
      * Reads a record from the file. Returns an array where each element is a
-     * record field.
+     * record field. No lock is taken, the record is read again if it was
+     * written while it was read.
      *
      * @param recNo The record number in the database to retrieve.
      * @return A String array representation of the database record.
@@ -97,44 +69,117 @@ class DatabaseAccessCrudOperations {
     public static String[] readRecord(long recNo)
             throws RecordNotFoundException {
 
-        long lockingCookie = DatabaseAccessLockManager
-                .getInstance().lock(recNo);
-
-        isValidRecordNumber(recNo);
-
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
         DatabaseFileUtils databaseFileUtils = DatabaseFileUtils.getInstance();
         String[] rowContentStrings =
                 new String[databaseFileUtils.getNumberOfFields()];
 
+        isExistingRecordNumber(recNo, databaseFileUtils);
+
         try {
-            RandomAccessFile randomAccessFile =
-                    UrlyBirdApplicationObjectsFactory
-                            .getDatabaseRandomAccessFile();
-            randomAccessFile.seek(distanceToSeek(recNo, databaseFileUtils));
+            long readStamp;
 
-            rowContentStrings =
-                    readStringArrayFromDatabaseFile(databaseFileUtils,
-                            randomAccessFile);
-            randomAccessFile.close();
+            do {
+                readStamp = databaseAccessLockManager.startReadingRecord(recNo);
+                rowContentStrings = readStringArrayFromDatabaseFile(
+                        databaseFileUtils, recNo);
+            } while (!databaseAccessLockManager
+                    .isRecordUnchanged(recNo, readStamp));
 
         } catch (IOException e) {
 
-            System.out.println("Error reading from RandomAccessFile.");
+            System.out.println("Error reading from the database file.");
             e.printStackTrace();
+        }
 
-        } finally {
+        return rowContentStrings;
+    }
+
+    /**
+     * Reads several records from the file, like {@link #readRecord}. The
+     * records are read in the order they are in the file, so the reads are
+     * sequential, and are returned in the order they were asked for.
+     *
+     * @param recNos The record numbers in the database to retrieve.
+     * @return A String array representation of each database record. Or NULL
+     * in the place of a record that does not exist, or had been deleted.
+     */
+    public static String[][] readRecords(final long[] recNos) {
 
-            DatabaseAccessLockManager
-                    .getInstance().unlock(recNo, lockingCookie);
+        Integer[] fileOrder = new Integer[recNos.length];
+        for (int i = 0; i < recNos.length; i++) {
+            fileOrder[i] = i;
         }
+        Arrays.sort(fileOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return Long.compare(recNos[first], recNos[second]);
+            }
+        });
 
-        return rowContentStrings;
+        String[][] records = new String[recNos.length][];
+
+        for (int i : fileOrder) {
+            try {
+                records[i] = readRecord(recNos[i]);
+            } catch (RecordNotFoundException e) {
+                records[i] = null;
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Reads the valid records, in the order they are in the file, starting at
+     * {@code firstRecordNumber}. The deleted records are skipped, using the
+     * in-memory bitmap of the valid records, and each record is read like
+     * {@link #readRecord}. To read all the records a page at a time, the next
+     * page starts after the record number of the last record of this page.
+     *
+     * @param firstRecordNumber The record number to start reading at.
+     * @param pageSize          The most records to read. Or zero, to read all
+     *                          the records from {@code firstRecordNumber}.
+     * @return The valid records, with their record numbers, in ascending
+     * order of record number. There are fewer than {@code pageSize} if the
+     * end of the file was reached.
+     */
+    public static DatabaseRecord[] readAllRecords(long firstRecordNumber,
+                                                  int pageSize) {
+
+        DatabaseAccessIndexManager databaseAccessIndexManager =
+                DatabaseAccessIndexManager.getInstance();
+        long numberOfRecords =
+                DatabaseFileUtils.getInstance().getNumberOfRecordsInDatabase();
+        List<DatabaseRecord> databaseRecords = new ArrayList<>();
+
+        for (long recordNumber = Math.max(firstRecordNumber, 0);
+             recordNumber < numberOfRecords
+                     && (pageSize <= 0
+                     || databaseRecords.size() < pageSize);
+             recordNumber++) {
+
+            if (!databaseAccessIndexManager.isValidRecordNumber(recordNumber)) {
+                continue;
+            }
+
+            try {
+                databaseRecords.add(new DatabaseRecord(recordNumber,
+                        readRecord(recordNumber)));
+            } catch (RecordNotFoundException ignored) {
+                // The record was deleted after it was checked.
+            }
+        }
+
+        return databaseRecords.toArray(
+                new DatabaseRecord[databaseRecords.size()]);
     }
 
     /**
      * Modifies the fields of a record. The new value for field n appears in
-     * data[n]. Throws SecurityException if the record is locked with a cookie
-     * other than lockCookie.
+     * data[n]. Throws SecurityException if the record is not locked with
+     * lockCookie.
      *
      * @param recNo      The record number in the database to update.
      * @param data       The string array representation of a database record,
@@ -142,12 +187,58 @@ class DatabaseAccessCrudOperations {
      * @param lockCookie The cookie that the row is locked with.
      * @throws RecordNotFoundException When locating a record that does not
      *                                 exist, or had been previously deleted.
-     * @throws SecurityException       If the record is locked by a user other
-     *                                 than the user trying to update the
-     *                                 record.
+     * @throws SecurityException       If the record is not locked with the
+     *                                 cookie, because it is locked by another
+     *                                 user, is not locked, or its lock has
+     *                                 expired.
      */
     public static void updateRecord(long recNo, String[] data, long lockCookie)
             throws RecordNotFoundException, SecurityException {
+        updateRecord(recNo, data, lockCookie, false);
+    }
+
+    /**
+     * Modifies some of the fields of a record, like {@link #updateRecord}.
+     * The new value for field n appears in data[n], and a field that is null
+     * is left as it is. Only the bytes of the fields that change are written,
+     * and the record is only read if an indexed field changes.
+     *
+     * @param recNo      The record number in the database to update.
+     * @param data       The string array representation of a database record,
+     *                   containing the updates, and null for the fields that
+     *                   are not updated.
+     * @param lockCookie The cookie that the row is locked with.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     * @throws SecurityException       If the record is not locked with the
+     *                                 cookie, because it is locked by another
+     *                                 user, is not locked, or its lock has
+     *                                 expired.
+     */
+    public static void updateFields(long recNo, String[] data, long lockCookie)
+            throws RecordNotFoundException, SecurityException {
+        updateRecord(recNo, data, lockCookie, true);
+    }
+
+    /**
+     * Modifies a record, or some of its fields. The record must be locked
+     * with the caller's cookie.
+     *
+     * @param recNo      The record number in the database to update.
+     * @param data       The string array representation of a database record,
+     *                   containing the updates.
+     * @param lockCookie The cookie that the row is locked with.
+     * @param onlyFields Whether to write only the fields that are not null.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     * @throws SecurityException       If the record is not locked with the
+     *                                 cookie, because it is locked by another
+     *                                 user, is not locked, or its lock has
+     *                                 expired.
+     */
+    private static void updateRecord(long recNo, String[] data,
+                                     long lockCookie, boolean onlyFields)
+            throws RecordNotFoundException, SecurityException {
 
         DatabaseAccessLockManager databaseAccessLockManager =
                 DatabaseAccessLockManager.getInstance();
@@ -159,54 +250,222 @@ class DatabaseAccessCrudOperations {
                     + " locked by another user.");
         }
 
+        // Only the cookie the record is locked with can write it, and the
+        // write renews its lease.
+        databaseAccessLockManager.renewLock(recNo, lockCookie);
+        DatabaseRecordVersions databaseRecordVersions =
+                DatabaseRecordVersions.getInstance();
+        databaseRecordVersions.startWriting(recNo);
+
         try {
-            lockCookie = databaseAccessLockManager.lock(recNo);
+            if (onlyFields) {
+                writeUpdatedFields(recNo, data);
+            } else {
+                writeUpdatedRecord(recNo, data);
+            }
 
-            DatabaseFileUtils databaseFileUtils =
-                    DatabaseFileUtils.getInstance();
-            databaseFileUtils.updateNumberOfRecordsInDatabase();
+        } finally {
+
+            databaseRecordVersions.finishWriting(recNo);
+        }
+    }
+
+    /**
+     * Modifies the fields of a record, like {@link #updateRecord}, but only if
+     * the record still has the {@code expectedVersion} and is not locked. The
+     * record is not locked for the update, so an update that conflicts with
+     * another one fails instead of waiting for it.
+     *
+     * @param recNo           The record number in the database to update.
+     * @param expectedVersion The version of the record, as the caller read it.
+     * @param data            The string array representation of a database
+     *                        record, containing the updates.
+     * @return True, if the record was updated.
+     * False, if the record has changed since the caller read it, or is
+     * locked.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     */
+    public static boolean updateIfVersion(long recNo, long expectedVersion,
+                                          String[] data)
+            throws RecordNotFoundException {
+
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
+        DatabaseRecordVersions databaseRecordVersions =
+                DatabaseRecordVersions.getInstance();
+
+        databaseAccessLockManager.startVersionedUpdate();
+
+        try {
+            if (!databaseRecordVersions.startWriting(recNo, expectedVersion)) {
+                return false;
+            }
+
+            boolean updated = false;
+
+            try {
+                // A record locked by a client is only updated by that client.
+                if (databaseAccessLockManager.isRecordLocked(recNo)) {
+                    return false;
+                }
+
+                isValidRecordNumber(recNo);
+                writeUpdatedRecord(recNo, data);
+                updated = true;
+
+                return true;
+
+            } finally {
+
+                if (updated) {
+                    databaseRecordVersions.finishWriting(recNo);
+                } else {
+                    databaseRecordVersions.abandonWriting(
+                            recNo, expectedVersion);
+                }
+            }
+
+        } finally {
+
+            databaseAccessLockManager.finishVersionedUpdate();
+        }
+    }
+
+    /**
+     * Gets the version of a record, to update it with
+     * {@link #updateIfVersion}. The version should be got before the record
+     * is read, so that any change after it was read makes the update fail.
+     *
+     * @param recNo The record number in the database.
+     * @return The version of the record.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     */
+    public static long getRecordVersion(long recNo)
+            throws RecordNotFoundException {
+
+        long version = DatabaseRecordVersions.getInstance().getVersion(recNo);
+        isValidRecordNumber(recNo);
+
+        return version;
+    }
+
+    /**
+     * Books a room, writing the owner and the date of a record, if the record
+     * has no owner. The record is locked while it is checked and written, so
+     * two clients cannot both book it.
+     *
+     * @param recNo     The record number in the database to book.
+     * @param ownerName The customer id of the owner.
+     * @param date      The date of the booking.
+     * @return True, if the room was booked.
+     * False, if the room was already booked.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     */
+    public static boolean bookRoom(long recNo, String ownerName, String date)
+            throws RecordNotFoundException {
+        return bookRoom(recNo, ownerName, date, false, 0);
+    }
+
+    /**
+     * Books a room, like {@link #bookRoom(long, String, String)}, if the
+     * record number was read in the current generation of record numbers, so
+     * it is still the number of the room the client chose.
+     *
+     * @param recNo                The record number in the database to book.
+     * @param ownerName            The customer id of the owner.
+     * @param date                 The date of the booking.
+     * @param compactionGeneration The generation the record number was read
+     *                             in.
+     * @return True, if the room was booked.
+     * False, if the room was already booked.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted,
+     *                                 or if the record number was read before
+     *                                 the last compaction.
+     */
+    public static boolean bookRoom(long recNo, String ownerName, String date,
+                                   long compactionGeneration)
+            throws RecordNotFoundException {
+        return bookRoom(recNo, ownerName, date, true, compactionGeneration);
+    }
 
-            RandomAccessFile databaseRandomAccessFile =
-                    UrlyBirdApplicationObjectsFactory
-                            .getDatabaseRandomAccessFile();
+    /**
+     * Books a room, checking the generation of its record number once it is
+     * locked, if {@code checkGeneration} is set.
+     *
+     * @param recNo                The record number in the database to book.
+     * @param ownerName            The customer id of the owner.
+     * @param date                 The date of the booking.
+     * @param checkGeneration      Whether to check the generation.
+     * @param compactionGeneration The generation the record number was read
+     *                             in.
+     * @return True, if the room was booked.
+     * False, if the room was already booked.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted,
+     *                                 or if the record number was read before
+     *                                 the last compaction.
+     */
+    private static boolean bookRoom(long recNo, String ownerName, String date,
+                                    boolean checkGeneration,
+                                    long compactionGeneration)
+            throws RecordNotFoundException {
+
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
+        long lockCookie = databaseAccessLockManager.lock(recNo);
 
-            databaseRandomAccessFile.seek(
-                    distanceToSeek(recNo, databaseFileUtils));
-            readStringArrayFromDatabaseFile(
-                    databaseFileUtils, databaseRandomAccessFile);
+        try {
+            if (checkGeneration) {
+                DatabaseAccessCompaction.isCurrentCompactionGeneration(
+                        recNo, compactionGeneration);
+            }
 
-            databaseRandomAccessFile.seek(distanceToSeek(
-                    recNo, databaseFileUtils));
-            databaseRandomAccessFile.writeByte(
-                    DatabaseFileSchema.VALID_RECORD_FLAG);
-            databaseRandomAccessFile.write(stringArrayAsByteArray(data));
+            String[] data = readStringArrayFromDatabaseFile(
+                    DatabaseFileUtils.getInstance(), recNo);
+
+            if (!data[DatabaseFileSchema.OWNER_FIELD_INDEX].trim().isEmpty()) {
+                return false;
+            }
 
-            databaseRandomAccessFile.close();
+            String[] booking = new String[data.length];
+            booking[DatabaseFileSchema.DATE_FIELD_INDEX] = date;
+            booking[DatabaseFileSchema.OWNER_FIELD_INDEX] = ownerName;
+            updateFields(recNo, booking, lockCookie);
+
+            return true;
 
         } catch (IOException e) {
 
-            System.out.println("Error when updating record " + recNo);
+            System.out.println("Error when booking record " + recNo);
             e.printStackTrace();
 
+            return false;
+
         } finally {
 
-            databaseAccessLockManager.unlock(recNo, lockCookie);
+            databaseAccessLockManager.unlockRecordWhenCreatingOrDeletingRecord(
+                    recNo, lockCookie);
         }
     }
 
     /**
      * Deletes a record, making the record number and associated disk storage
-     * unavailable for reuse by setting an "invalid" flag for the record. Throws
-     * SecurityException if the record is locked with a cookie other than
-     * lockCookie.
+     * available for reuse by setting an "invalid" flag for the record. Throws
+     * SecurityException if the record is not locked with lockCookie. The lock
+     * on the record is released.
      *
      * @param recNo      The record number in the database to delete.
      * @param lockCookie The cookie that the row is locked with.
      * @throws RecordNotFoundException When locating a record that does not
      *                                 exist, or had been previously deleted.
-     * @throws SecurityException       If the record is locked by a user other
-     *                                 than the user trying to update the
-     *                                 record.
+     * @throws SecurityException       If the record is not locked with the
+     *                                 cookie, because it is locked by another
+     *                                 user, is not locked, or its lock has
+     *                                 expired.
      */
     public static void deleteRecord(long recNo, long lockCookie)
             throws RecordNotFoundException, SecurityException {
@@ -221,26 +480,34 @@ class DatabaseAccessCrudOperations {
                     + " locked by another user.");
         }
 
-        lockCookie = databaseAccessLockManager.lock(recNo);
+        // Only the cookie the record is locked with can delete it.
+        databaseAccessLockManager.renewLock(recNo, lockCookie);
         DatabaseFileUtils databaseFileUtils = DatabaseFileUtils.getInstance();
 
         try {
-            databaseFileUtils.updateNumberOfRecordsInDatabase();
             isValidRecordNumber(recNo);
 
-            RandomAccessFile databaseRandomAccessFile =
-                    UrlyBirdApplicationObjectsFactory
-                            .getDatabaseRandomAccessFile();
-            databaseRandomAccessFile.seek(
-                    distanceToSeek(recNo, databaseFileUtils));
-            readStringArrayFromDatabaseFile(
-                    databaseFileUtils, databaseRandomAccessFile);
-            databaseRandomAccessFile.seek(
-                    distanceToSeek(recNo, databaseFileUtils));
-            databaseRandomAccessFile.write(
-                    DatabaseFileSchema.INVALID_RECORD_FLAG);
+            String[] previousData =
+                    readStringArrayFromDatabaseFile(databaseFileUtils, recNo);
+
+            DatabaseRecordVersions databaseRecordVersions =
+                    DatabaseRecordVersions.getInstance();
+            databaseRecordVersions.startWriting(recNo);
+            databaseAccessLockManager.startWritingRecord(recNo);
+            try {
+                DatabaseFileStorage.getInstance().write(
+                        ByteBuffer.wrap(new byte[]{
+                                DatabaseFileSchema.INVALID_RECORD_FLAG}),
+                        distanceToSeek(recNo, databaseFileUtils));
+            } finally {
+                databaseAccessLockManager.finishWritingRecord(recNo);
+                databaseRecordVersions.finishWriting(recNo);
+            }
 
-            databaseRandomAccessFile.close();
+            DatabaseAccessIndexManager databaseAccessIndexManager =
+                    DatabaseAccessIndexManager.getInstance();
+            databaseAccessIndexManager.removeRecord(recNo, previousData);
+            databaseAccessIndexManager.addDeletedRecordNumber(recNo);
 
         } catch (IOException e) {
 
@@ -249,7 +516,7 @@ class DatabaseAccessCrudOperations {
 
         } finally {
 
-            databaseFileUtils.updateNumberOfRecordsInDatabase();
+            // The record is gone, so the caller's lock is released.
             databaseAccessLockManager
                     .unlockRecordWhenCreatingOrDeletingRecord(
                             recNo, lockCookie);
@@ -257,8 +524,9 @@ class DatabaseAccessCrudOperations {
     }
 
     /**
-     * Checks the database file to see if the supplied {@code recordNumber}
-     * corresponds to an existing valid record.
+     * Checks if the supplied {@code recordNumber} corresponds to an existing
+     * valid record. The database file is not read, the in-memory bitmap of
+     * the valid records is checked.
      *
      * @param recordNumber The record number in the database to retrieve.
      * @throws RecordNotFoundException When locating a record that does not
@@ -271,79 +539,210 @@ class DatabaseAccessCrudOperations {
 
         isExistingRecordNumber(recordNumber, databaseFileUtils);
 
-        try {
-            byte[] recordBytes = new byte[DatabaseFileSchema.RECORD_LENGTH];
+        if (!DatabaseAccessIndexManager.getInstance()
+                .isValidRecordNumber(recordNumber)) {
+            throw new RecordNotFoundException("Record already deleted.");
+        }
+    }
 
-            RandomAccessFile randomAccessFile =
-                    UrlyBirdApplicationObjectsFactory
-                            .getDatabaseRandomAccessFile();
-            randomAccessFile.seek(
-                    distanceToSeek(recordNumber, databaseFileUtils));
+    // ---------- Private Methods ----------
+
+    /**
+     * Writes a new record in the place of the lowest numbered deleted record
+     * that is not locked, or at the end of the database file when there is no
+     * such record.
+     * Only the write is synchronized, the duplicate key check is done before
+     * it.
+     *
+     * @param data The string array representation of a database record.
+     * @return The record number of the position that the record was created.
+     */
+    private static synchronized long writeNewRecord(String[] data) {
 
-            if (randomAccessFile.read(recordBytes)
-                    < DatabaseFileSchema.RECORD_LENGTH) {
-                throw new RecordNotFoundException("Record does not exist");
+        DatabaseFileUtils databaseFileUtils = DatabaseFileUtils.getInstance();
+        DatabaseAccessIndexManager databaseAccessIndexManager =
+                DatabaseAccessIndexManager.getInstance();
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
+        List<Long> lockedDeletedRecordNumbers = new ArrayList<>();
+        Long deletedRecordNumber;
+        Long deletedRecordCookie = null;
+
+        // A deleted record that is still locked, by a client that was waiting
+        // for it when it was deleted, is skipped rather than waited for while
+        // holding this class's lock.
+        while ((deletedRecordNumber =
+                databaseAccessIndexManager.takeDeletedRecordNumber()) != null) {
+
+            try {
+                deletedRecordCookie = databaseAccessLockManager
+                        .tryLockRecordWhenCreatingNewRecord(
+                                deletedRecordNumber);
+            } catch (RecordNotFoundException ignored) {
             }
 
-            if (recordBytes[0] == DatabaseFileSchema.INVALID_RECORD_FLAG) {
-                throw new RecordNotFoundException("Record already deleted.");
+            if (deletedRecordCookie != null) break;
+            lockedDeletedRecordNumbers.add(deletedRecordNumber);
+        }
+
+        for (Long lockedDeletedRecordNumber : lockedDeletedRecordNumbers) {
+            databaseAccessIndexManager
+                    .addDeletedRecordNumber(lockedDeletedRecordNumber);
+        }
+
+        long positionToInsertRecord;
+        long lockCookie = 0;
+
+        if (deletedRecordNumber != null) {
+            positionToInsertRecord = deletedRecordNumber;
+            lockCookie = deletedRecordCookie;
+        } else {
+            positionToInsertRecord =
+                    databaseFileUtils.getNumberOfRecordsInDatabase();
+
+            try {
+                lockCookie = databaseAccessLockManager
+                        .lockRecordWhenCreatingNewRecord(
+                                positionToInsertRecord);
+            } catch (RecordNotFoundException ignored) {
+            }
+        }
+
+        DatabaseRecordVersions databaseRecordVersions =
+                DatabaseRecordVersions.getInstance();
+        databaseRecordVersions.startWriting(positionToInsertRecord);
+
+        try {
+            writeStringArrayToDatabaseFile(databaseFileUtils,
+                    positionToInsertRecord, data);
+
+            // The new record is counted once it is in the database file, and
+            // before it can be found with a search.
+            if (deletedRecordNumber == null) {
+                databaseFileUtils.incrementNumberOfRecordsInDatabase();
             }
+            databaseAccessIndexManager.addValidRecordNumber(
+                    positionToInsertRecord);
+            databaseAccessIndexManager.addRecord(positionToInsertRecord, data);
 
         } catch (IOException e) {
 
-            System.out.println("Error reading from file.");
+            if (deletedRecordNumber != null) {
+                databaseAccessIndexManager
+                        .addDeletedRecordNumber(deletedRecordNumber);
+            }
+            databaseAccessIndexManager.releaseKey(data);
+            System.out.println("Error when creating new record.");
             e.printStackTrace();
+
+        } finally {
+
+            databaseRecordVersions.finishWriting(positionToInsertRecord);
+            databaseAccessLockManager.unlockRecordWhenCreatingOrDeletingRecord(
+                    positionToInsertRecord, lockCookie);
         }
+
+        return positionToInsertRecord;
     }
 
-    // ---------- Private Methods ----------
-    private static byte[] stringArrayAsByteArray(String[] strings) {
+    /**
+     * Writes the updated fields of a record, and moves the record in the
+     * indexes. The record must be locked, or its version claimed.
+     *
+     * @param recNo The record number in the database to update.
+     * @param data  The string array representation of a database record,
+     *              containing the updates.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     */
+    private static void writeUpdatedRecord(long recNo, String[] data)
+            throws RecordNotFoundException {
 
-        ByteArrayOutputStream byteArrayOutputStream =
-                new ByteArrayOutputStream();
-        DataOutputStream dataOutputStream =
-                new DataOutputStream(byteArrayOutputStream);
+        try {
+            DatabaseFileUtils databaseFileUtils =
+                    DatabaseFileUtils.getInstance();
+
+            String[] previousData =
+                    readStringArrayFromDatabaseFile(databaseFileUtils, recNo);
+            writeStringArrayToDatabaseFile(databaseFileUtils, recNo, data);
+
+            DatabaseAccessIndexManager databaseAccessIndexManager =
+                    DatabaseAccessIndexManager.getInstance();
+            databaseAccessIndexManager.updateRecord(recNo, previousData, data);
+
+        } catch (IOException e) {
+
+            System.out.println("Error when updating record " + recNo);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the fields of a record that are not null, and moves the record
+     * in the indexes if an indexed field is among them. Each run of adjacent
+     * fields is written at its offset in the record, in one write. The record
+     * must be locked, or its version claimed.
+     *
+     * @param recNo The record number in the database to update.
+     * @param data  The string array representation of a database record,
+     *              containing the updates, and null for the fields that are
+     *              not updated.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     */
+    private static void writeUpdatedFields(long recNo, String[] data)
+            throws RecordNotFoundException {
 
         try {
-            for (int i = 0, j = 0, k = 0;
-                 i < DatabaseFileUtils.getInstance().getNumberOfFields(); i++) {
+            DatabaseFileUtils databaseFileUtils =
+                    DatabaseFileUtils.getInstance();
+            String[] previousData = null;
+
+            if (isIndexedFieldUpdated(data)) {
+                previousData = readStringArrayFromDatabaseFile(
+                        databaseFileUtils, recNo);
+            } else {
+                isValidRecordNumber(recNo);
+            }
 
-                int fieldLength =
-                        DatabaseFileSchema.databaseFieldLengths.get(i);
-                byte[] bytes = new byte[fieldLength];
+            writeFieldsToDatabaseFile(databaseFileUtils, recNo, data);
 
-                if (strings[i] == null) strings[i] = "";
+            if (previousData != null) {
 
-                for (byte b : strings[i].getBytes()) {
-                    bytes[j++] = b;
+                String[] updatedData = previousData.clone();
+                for (int i = 0; i < data.length && i < updatedData.length;
+                     i++) {
+                    if (data[i] != null) updatedData[i] = data[i];
                 }
 
-                while (k < fieldLength) {
-                    dataOutputStream.write(bytes[k++]);
-                }
-                // Reset the secondary counters each time round.
-                j = 0;
-                k = 0;
+                DatabaseAccessIndexManager databaseAccessIndexManager =
+                        DatabaseAccessIndexManager.getInstance();
+                databaseAccessIndexManager.updateRecord(
+                        recNo, previousData, updatedData);
             }
 
-            dataOutputStream.flush();
-            dataOutputStream.close();
         } catch (IOException e) {
 
-            System.out.println(
-                    "Error converting the StringArray to a ByteArray.");
+            System.out.println("Error when updating record " + recNo);
             e.printStackTrace();
         }
+    }
+
+    private static boolean isIndexedFieldUpdated(String[] data) {
+
+        return isFieldUpdated(data, DatabaseAccessIndexManager.NAME_FIELD_INDEX)
+                || isFieldUpdated(data,
+                DatabaseAccessIndexManager.LOCATION_FIELD_INDEX);
+    }
 
-        return byteArrayOutputStream.toByteArray();
+    private static boolean isFieldUpdated(String[] data, int fieldIndex) {
+        return fieldIndex < data.length && data[fieldIndex] != null;
     }
 
     private static void isExistingRecordNumber(
             long recordNumber, DatabaseFileUtils databaseFileUtils)
             throws RecordNotFoundException {
 
-        databaseFileUtils.updateNumberOfRecordsInDatabase();
-
         if (recordNumber < 0 ||
                 recordNumber >=
                         databaseFileUtils.getNumberOfRecordsInDatabase()) {
@@ -360,35 +759,97 @@ class DatabaseAccessCrudOperations {
                 + (DatabaseFileSchema.RECORD_LENGTH * recordNumber);
     }
 
+    private static void writeStringArrayToDatabaseFile(
+            DatabaseFileUtils databaseFileUtils, long recordNumber,
+            String[] data) throws IOException {
+
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
+        databaseAccessLockManager.startWritingRecord(recordNumber);
+
+        try {
+            DatabaseFileStorage.getInstance().write(
+                    DatabaseRecordCodec.getInstance().encodeRecord(data),
+                    distanceToSeek(recordNumber, databaseFileUtils));
+        } finally {
+            databaseAccessLockManager.finishWritingRecord(recordNumber);
+        }
+    }
+
+    private static void writeFieldsToDatabaseFile(
+            DatabaseFileUtils databaseFileUtils, long recordNumber,
+            String[] data) throws IOException {
+
+        DatabaseAccessLockManager databaseAccessLockManager =
+                DatabaseAccessLockManager.getInstance();
+        DatabaseRecordCodec databaseRecordCodec =
+                DatabaseRecordCodec.getInstance();
+        int numberOfFields = Math.min(data.length,
+                databaseFileUtils.getNumberOfFields());
+        databaseAccessLockManager.startWritingRecord(recordNumber);
+
+        try {
+            for (int firstField = 0; firstField < numberOfFields;
+                 firstField++) {
+
+                if (data[firstField] == null) continue;
+
+                int lastField = firstField;
+                while (lastField + 1 < numberOfFields
+                        && data[lastField + 1] != null) {
+                    lastField++;
+                }
+
+                ByteBuffer fieldsBuffer = databaseRecordCodec.encodeFields(
+                        data, firstField, lastField);
+                DatabaseFileStorage.getInstance().write(fieldsBuffer,
+                        distanceToSeek(recordNumber, databaseFileUtils)
+                                + fieldsBuffer.position());
+
+                firstField = lastField;
+            }
+        } finally {
+            databaseAccessLockManager.finishWritingRecord(recordNumber);
+        }
+    }
+
     private static String[] readStringArrayFromDatabaseFile(
-            DatabaseFileUtils databaseFileUtils,
-            RandomAccessFile randomAccessFile)
+            DatabaseFileUtils databaseFileUtils, long recordNumber)
+            throws IOException, RecordNotFoundException {
+
+        return DatabaseRecordCodec.getInstance().decodeRecord(
+                readRecordIntoBuffer(databaseFileUtils, recordNumber));
+    }
+
+    /**
+     * Reads a valid record into the calling thread's record buffer.
+     *
+     * @param databaseFileUtils The utilities for the database file.
+     * @param recordNumber      The record number in the database to read.
+     * @return The record buffer of the calling thread, holding the record.
+     * @throws IOException             If there is a problem reading the
+     *                                 database file.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     */
+    private static ByteBuffer readRecordIntoBuffer(
+            DatabaseFileUtils databaseFileUtils, long recordNumber)
             throws IOException, RecordNotFoundException {
 
-        byte[] recordBytes = new byte[DatabaseFileSchema.RECORD_LENGTH];
+        DatabaseRecordCodec databaseRecordCodec =
+                DatabaseRecordCodec.getInstance();
+        ByteBuffer recordBuffer = databaseRecordCodec.getRecordBuffer();
 
-        if (randomAccessFile.read(recordBytes)
+        if (DatabaseFileStorage.getInstance().read(recordBuffer,
+                distanceToSeek(recordNumber, databaseFileUtils))
                 < DatabaseFileSchema.RECORD_LENGTH) {
             throw new RecordNotFoundException("Record does not exist");
         }
 
-        if (recordBytes[0] == DatabaseFileSchema.INVALID_RECORD_FLAG) {
+        if (!databaseRecordCodec.isValidRecord(recordBuffer)) {
             throw new RecordNotFoundException("Record already deleted.");
         }
 
-        String record = new String(recordBytes,
-                UrlyBirdApplicationConstants.FILE_ENCODING);
-        String[] strings = new String[databaseFileUtils.getNumberOfFields()];
-        int flagIndentation = 1;
-
-        for (int i = 0; i < databaseFileUtils.getNumberOfFields(); i++) {
-
-            int fieldLength = DatabaseFileSchema.databaseFieldLengths.get(i);
-            strings[i] = record.substring(flagIndentation,
-                    flagIndentation + fieldLength);
-            flagIndentation = flagIndentation + fieldLength;
-        }
-
-        return strings;
+        return recordBuffer;
     }
 }
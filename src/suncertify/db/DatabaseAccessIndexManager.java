@@ -0,0 +1,361 @@
+package suncertify.db;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This singleton class holds the in-memory indexes of the database records.
+ * The indexes are built by one pass over the database file, the first time
+ * the instance is used, and are kept up to date by the create, update and
+ * delete operations in {@link DatabaseAccessCrudOperations}.
+ * <p/>
+ * There are prefix indexes on the hotel name and the hotel location for
+ * searching, and a hash index on the name and location together. The hash
+ * index is the unique key of the database, it is used to detect duplicate
+ * records when a record is created. An update is not checked, so it can give
+ * a record the name and location of another one. The hash index counts the
+ * records with each name and location, so the key stays taken until the last
+ * of them is updated or deleted.
+ * <p/>
+ * It also keeps the free list, the record numbers of the deleted records, so
+ * a new record can reuse the space of a deleted one instead of making the
+ * database file grow. And it keeps a bitmap of the valid records, so that
+ * checking a record number does not read the record's flag from the file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseAccessIndexManager {
+
+    /**
+     * The position of the hotel name in a record.
+     */
+    public static final int NAME_FIELD_INDEX = 0;
+    /**
+     * The position of the hotel location in a record.
+     */
+    public static final int LOCATION_FIELD_INDEX = 1;
+
+    // Separates the name and the location in a key of the key index.
+    private static final char KEY_SEPARATOR = '\n';
+    // The number of record numbers in each word of the valid records bitmap.
+    private static final int BITS_PER_WORD = 64;
+
+    // Singleton instance of this {@code DatabaseAccessIndexManager} class.
+    private static volatile DatabaseAccessIndexManager
+            databaseAccessIndexManager;
+
+    private final DatabaseFieldPrefixIndex namePrefixIndex =
+            new DatabaseFieldPrefixIndex();
+    private final DatabaseFieldPrefixIndex locationPrefixIndex =
+            new DatabaseFieldPrefixIndex();
+    // The number of records (value) with each name and location (key),
+    // counting a record that is being created. It is only used while holding
+    // its own lock.
+    private final Map<String, Integer> numberOfRecordsByKey = new HashMap<>();
+    // The record numbers of the deleted records, that can be reused.
+    private final NavigableSet<Long> deletedRecordNumbers =
+            new ConcurrentSkipListSet<>();
+    // A bit for each record number, set if the record is valid. It is read
+    // without a lock, and only changed while holding this instance's lock,
+    // which grows it by replacing it with a longer copy.
+    private volatile AtomicLongArray validRecordsBitmap =
+            new AtomicLongArray(0);
+
+    /**
+     * Private constructor for the singleton. It builds the indexes from the
+     * valid records in the database file, and the free list from the deleted
+     * records.
+     */
+    private DatabaseAccessIndexManager() {
+
+        try {
+            DatabaseFileScanner databaseFileScanner = new DatabaseFileScanner();
+
+            while (databaseFileScanner.nextRecord()) {
+
+                if (databaseFileScanner.isValidRecord()) {
+                    String name =
+                            databaseFileScanner.readField(NAME_FIELD_INDEX);
+                    String location = databaseFileScanner.readField(
+                            LOCATION_FIELD_INDEX);
+
+                    addValidRecordNumber(databaseFileScanner.getRecordNumber());
+                    indexRecord(databaseFileScanner.getRecordNumber(),
+                            name, location);
+                    addKey(keyOf(name, location));
+                } else {
+                    deletedRecordNumbers.add(
+                            databaseFileScanner.getRecordNumber());
+                }
+            }
+
+        } catch (IOException e) {
+
+            System.out.println("Error when indexing the database file.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * This method returns the single instance of the
+     * {@code DatabaseAccessIndexManager} class.
+     *
+     * @return the instance to the calling class
+     */
+    public static DatabaseAccessIndexManager getInstance() {
+
+        // Every record number check gets the instance, so once it is built
+        // it is got without taking the class's lock.
+        DatabaseAccessIndexManager instance = databaseAccessIndexManager;
+
+        if (instance == null) {
+            synchronized (DatabaseAccessIndexManager.class) {
+
+                if (databaseAccessIndexManager == null) {
+                    databaseAccessIndexManager =
+                            new DatabaseAccessIndexManager();
+                }
+                instance = databaseAccessIndexManager;
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Replaces the single instance with one built from the database file as
+     * it is now. This is used after the database file is compacted, when the
+     * record numbers have changed.
+     */
+    static synchronized void rebuildIndexes() {
+        databaseAccessIndexManager = new DatabaseAccessIndexManager();
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Reserves the name and location of a record that is about to be created.
+     * Only one caller can reserve a name and location, and only when no
+     * record already has them.
+     *
+     * @param data The string array representation of the new record.
+     * @return True, if the name and location were reserved.
+     * False, if the name and location belong to another record.
+     */
+    public boolean reserveKey(String[] data) {
+
+        String key = keyOf(data[NAME_FIELD_INDEX], data[LOCATION_FIELD_INDEX]);
+
+        synchronized (numberOfRecordsByKey) {
+
+            if (numberOfRecordsByKey.containsKey(key)) return false;
+
+            addKey(key);
+            return true;
+        }
+    }
+
+    /**
+     * Releases the name and location of a record that could not be created.
+     *
+     * @param data The string array representation of the new record.
+     */
+    public void releaseKey(String[] data) {
+        removeKey(keyOf(data[NAME_FIELD_INDEX], data[LOCATION_FIELD_INDEX]));
+    }
+
+    /**
+     * Adds a record, that has been created, to the indexes. Its name and
+     * location were reserved with {@link #reserveKey}, so they are already
+     * counted in the key index.
+     *
+     * @param recordNumber The record number of the record.
+     * @param data         The string array representation of the record.
+     */
+    public void addRecord(long recordNumber, String[] data) {
+
+        indexRecord(recordNumber,
+                data[NAME_FIELD_INDEX], data[LOCATION_FIELD_INDEX]);
+    }
+
+    /**
+     * Moves a record, that has been updated, in the indexes.
+     *
+     * @param recordNumber The record number of the record.
+     * @param previousData The string array representation of the record, as
+     *                     it was before it was updated.
+     * @param data         The string array representation of the record, as
+     *                     it is now.
+     */
+    public void updateRecord(long recordNumber, String[] previousData,
+                             String[] data) {
+
+        namePrefixIndex.remove(previousData[NAME_FIELD_INDEX], recordNumber);
+        locationPrefixIndex.remove(
+                previousData[LOCATION_FIELD_INDEX], recordNumber);
+        indexRecord(recordNumber,
+                data[NAME_FIELD_INDEX], data[LOCATION_FIELD_INDEX]);
+
+        // The new key is counted before the old one is removed, so a record
+        // that keeps its name and location never leaves its key free.
+        addKey(keyOf(data[NAME_FIELD_INDEX], data[LOCATION_FIELD_INDEX]));
+        removeKey(keyOf(previousData[NAME_FIELD_INDEX],
+                previousData[LOCATION_FIELD_INDEX]));
+    }
+
+    /**
+     * Removes a record, that has been deleted, from the indexes.
+     *
+     * @param recordNumber The record number of the record.
+     * @param data         The string array representation of the record, as
+     *                     it was before it was deleted.
+     */
+    public void removeRecord(long recordNumber, String[] data) {
+
+        namePrefixIndex.remove(data[NAME_FIELD_INDEX], recordNumber);
+        locationPrefixIndex.remove(data[LOCATION_FIELD_INDEX], recordNumber);
+        removeKey(keyOf(data[NAME_FIELD_INDEX], data[LOCATION_FIELD_INDEX]));
+    }
+
+    /**
+     * Marks a record as deleted, and adds its record number to the free list.
+     *
+     * @param recordNumber The record number of the deleted record.
+     */
+    public void addDeletedRecordNumber(long recordNumber) {
+
+        setValidRecordBit(recordNumber, false);
+        deletedRecordNumbers.add(recordNumber);
+    }
+
+    /**
+     * Marks a record, that has been written to the database file, as valid.
+     *
+     * @param recordNumber The record number of the new record.
+     */
+    public void addValidRecordNumber(long recordNumber) {
+        setValidRecordBit(recordNumber, true);
+    }
+
+    /**
+     * Checks whether a record is valid, without reading the database file.
+     *
+     * @param recordNumber The record number to check.
+     * @return True, if the record has been written and not deleted.
+     * False, if the record has been deleted, or does not exist.
+     */
+    public boolean isValidRecordNumber(long recordNumber) {
+
+        AtomicLongArray bitmap = validRecordsBitmap;
+        long word = recordNumber / BITS_PER_WORD;
+
+        return recordNumber >= 0 && word < bitmap.length()
+                && (bitmap.get((int) word) & bitOf(recordNumber)) != 0;
+    }
+
+    /**
+     * Takes the lowest record number off the free list, so a new record can
+     * be written in its place.
+     *
+     * @return The record number of a deleted record. Or NULL if there are no
+     * deleted records.
+     */
+    public Long takeDeletedRecordNumber() {
+        return deletedRecordNumbers.pollFirst();
+    }
+
+    /**
+     * Finds the records whose hotel name starts with {@code prefix}, ignoring
+     * case.
+     *
+     * @param prefix The prefix to match against.
+     * @return The record numbers of the matching records, in ascending order.
+     */
+    public long[] findByNamePrefix(String prefix) {
+        return namePrefixIndex.find(prefix);
+    }
+
+    /**
+     * Finds the records whose hotel location starts with {@code prefix},
+     * ignoring case.
+     *
+     * @param prefix The prefix to match against.
+     * @return The record numbers of the matching records, in ascending order.
+     */
+    public long[] findByLocationPrefix(String prefix) {
+        return locationPrefixIndex.find(prefix);
+    }
+
+    // ---------- Private Methods ----------
+    private synchronized void setValidRecordBit(long recordNumber,
+                                                boolean valid) {
+
+        int word = (int) (recordNumber / BITS_PER_WORD);
+        AtomicLongArray bitmap = validRecordsBitmap;
+
+        if (word >= bitmap.length()) {
+
+            if (!valid) return;
+
+            AtomicLongArray grownBitmap = new AtomicLongArray(
+                    Math.max(word + 1, bitmap.length() * 2));
+            for (int i = 0; i < bitmap.length(); i++) {
+                grownBitmap.set(i, bitmap.get(i));
+            }
+            validRecordsBitmap = bitmap = grownBitmap;
+        }
+
+        long bit = bitOf(recordNumber);
+        bitmap.set(word, valid
+                ? bitmap.get(word) | bit
+                : bitmap.get(word) & ~bit);
+    }
+
+    private static long bitOf(long recordNumber) {
+        return 1L << (recordNumber % BITS_PER_WORD);
+    }
+
+    private void indexRecord(long recordNumber, String name,
+                             String location) {
+
+        namePrefixIndex.add(name, recordNumber);
+        locationPrefixIndex.add(location, recordNumber);
+    }
+
+    private void addKey(String key) {
+
+        synchronized (numberOfRecordsByKey) {
+
+            Integer numberOfRecords = numberOfRecordsByKey.get(key);
+            numberOfRecordsByKey.put(key,
+                    numberOfRecords == null ? 1 : numberOfRecords + 1);
+        }
+    }
+
+    private void removeKey(String key) {
+
+        synchronized (numberOfRecordsByKey) {
+
+            Integer numberOfRecords = numberOfRecordsByKey.get(key);
+
+            if (numberOfRecords == null || numberOfRecords <= 1) {
+                numberOfRecordsByKey.remove(key);
+            } else {
+                numberOfRecordsByKey.put(key, numberOfRecords - 1);
+            }
+        }
+    }
+
+    private static String keyOf(String name, String location) {
+
+        return DatabaseFieldPrefixIndex.normalise(name == null ? "" : name)
+                + KEY_SEPARATOR
+                + DatabaseFieldPrefixIndex.normalise(
+                location == null ? "" : location);
+    }
+}
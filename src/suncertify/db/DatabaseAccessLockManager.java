@@ -1,26 +1,109 @@
 package suncertify.db;
 
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This singleton class handles the locking and unlocking of the database
  * records.
+ * <p/>
+ * The record locks are kept in stripes, each stripe has its own lock and map
+ * of the locked records, so clients locking different records rarely contend.
+ * Each locked record has its own wait queue, so unlocking a record wakes a
+ * single client that is waiting for that record, and no others. A client can
+ * give up waiting for a record after a time, or not wait at all, and the
+ * times that clients give up are counted. A client can lock several records
+ * at once, they are locked in order of record number, so two clients locking
+ * the same records cannot each hold one the other is waiting for.
+ * <p/>
+ * Each lock has its own cookie, a random number that is not zero, drawn from
+ * the stripe's {@code SecureRandom}. Ownership goes with the cookie, not with
+ * the thread that locked the record, so a client's calls can be run on any
+ * thread, and a client cannot guess the cookie of another client's lock.
+ * <p/>
+ * A lock is a lease. It expires thirty seconds after the record was locked,
+ * unless the client renews it, or updates or deletes the record with it. A
+ * sweeper thread unlocks the records whose leases have
+ * expired, so a record locked by a client that died is not locked for good.
+ * <p/>
+ * Reading a record takes no lock. Instead, each write to the database file
+ * is counted when it starts and when it finishes, and a read that overlaps a
+ * write to its record is retried. So reads never wait for a client that
+ * holds a lock, or for each other. The writes are counted in stripes of
+ * records, a write to one record of a stripe makes the reads of the others
+ * retry too.
+ * <p/>
+ * While the database file is compacted the record numbers change, so locking
+ * is suspended: no new locks are granted to clients, and no records are
+ * created, until the compaction is over. Records can still be read.
  *
  * @author Luke GJ Potter
  * @since 27/03/2014
  */
 class DatabaseAccessLockManager {
 
-    // Singleton instance of this {@code DatabaseAccessLockManager} class.
-    private static DatabaseAccessLockManager databaseAccessLockManager;
-    // A map to record which records (key) are locked by which thread (value).
-    private final Map<Long, Long> lockedMap = new HashMap<>();
+    // The number of stripes the record locks are kept in, a power of two.
+    private static final int NUMBER_OF_LOCK_STRIPES = 64;
+    // The number of stripes the record writes are counted in, a power of two.
+    private static final int NUMBER_OF_WRITE_STRIPES = 1024;
+    // How long a lock lasts, unless it is renewed.
+    private static final long LOCK_LEASE_MILLISECONDS = 30000;
+    // How often the sweeper looks for expired locks.
+    private static final long LEASE_SWEEP_INTERVAL_MILLISECONDS = 5000;
+    // The owner of a record that is not locked, it is never used as a cookie.
+    private static final long NO_OWNER = 0;
+
+    // Singleton instance of this {@code DatabaseAccessLockManager} class. It
+    // is created up front, so concurrent first callers share one instance.
+    private static final DatabaseAccessLockManager databaseAccessLockManager =
+            new DatabaseAccessLockManager();
+
+    private final LockStripe[] lockStripes =
+            new LockStripe[NUMBER_OF_LOCK_STRIPES];
+    // The number of records that are locked, in all the stripes.
+    private final AtomicInteger numberOfLockedRecords = new AtomicInteger();
+    // The number of timed locks asked for, and the number that timed out.
+    private final AtomicLong numberOfTimedLockAttempts = new AtomicLong();
+    private final AtomicLong numberOfLockTimeouts = new AtomicLong();
+    // The number of locks that expired and were unlocked by the sweeper.
+    private final AtomicLong numberOfExpiredLocks = new AtomicLong();
+    // Held, shared, while records are created or updated without a lock, and
+    // held exclusively while the database file is compacted.
+    private final ReentrantReadWriteLock recordCreationLock =
+            new ReentrantReadWriteLock();
+    // Guards the suspension of locking, and is notified when it changes.
+    private final Object suspensionMonitor = new Object();
+    // True, while the database file is compacted.
+    private volatile boolean lockingSuspended;
+    // The number of record writes started and finished in each stripe.
+    private final AtomicLongArray writesStarted =
+            new AtomicLongArray(NUMBER_OF_WRITE_STRIPES);
+    private final AtomicLongArray writesFinished =
+            new AtomicLongArray(NUMBER_OF_WRITE_STRIPES);
 
     /**
      * Private constructor for the singleton.
      */
     private DatabaseAccessLockManager() {
+
+        for (int i = 0; i < NUMBER_OF_LOCK_STRIPES; i++) {
+            lockStripes[i] = new LockStripe();
+        }
+
+        startLeaseSweeper();
     }
 
     /**
@@ -30,11 +113,6 @@ class DatabaseAccessLockManager {
      * @return the instance to the calling class
      */
     public static DatabaseAccessLockManager getInstance() {
-
-        if (databaseAccessLockManager == null) {
-            databaseAccessLockManager = new DatabaseAccessLockManager();
-        }
-
         return databaseAccessLockManager;
     }
 
@@ -46,26 +124,147 @@ class DatabaseAccessLockManager {
      * cycles until the record is unlocked.
      *
      * @param recNo the record number to lock
-     * @return A long representing the lock's owner's id.
+     * @return The cookie of the lock.
      * @throws RecordNotFoundException
      */
-    public synchronized long lock(long recNo) throws RecordNotFoundException {
+    public long lock(long recNo) throws RecordNotFoundException {
+        return lockRecord(recNo, false, 0);
+    }
 
-        DatabaseAccessCrudOperations.isValidRecordNumber(recNo);
+    /**
+     * Locks a record, like {@link #lock(long)}, but gives up if the record is
+     * not unlocked by a different client within {@code timeoutMilliseconds}.
+     * A timeout of zero, or less, does not wait at all.
+     *
+     * @param recNo               the record number to lock
+     * @param timeoutMilliseconds how long to wait for the record
+     * @return The cookie of the lock.
+     * @throws RecordNotFoundException    When locating a record that does not
+     *                                    exist, or had been previously deleted.
+     * @throws RecordLockTimeoutException If the record was not unlocked in
+     *                                    time.
+     */
+    public long lock(long recNo, long timeoutMilliseconds)
+            throws RecordNotFoundException, RecordLockTimeoutException {
+
+        numberOfTimedLockAttempts.incrementAndGet();
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(timeoutMilliseconds);
+        Long lockingCookie = lockRecord(recNo, true, deadline);
+
+        if (lockingCookie == null) {
+            numberOfLockTimeouts.incrementAndGet();
+            throw new RecordLockTimeoutException("Record " + recNo
+                    + " was not unlocked within " + timeoutMilliseconds
+                    + " ms.");
+        }
 
-        return lockRecordWhenCreatingNewRecord(recNo);
+        return lockingCookie;
+    }
+
+    /**
+     * Locks a record, like {@link #lock(long)}, if it is not locked by a
+     * different client. Otherwise it gives up at once.
+     *
+     * @param recNo the record number to lock
+     * @return The cookie of the lock.
+     * @throws RecordNotFoundException    When locating a record that does not
+     *                                    exist, or had been previously deleted.
+     * @throws RecordLockTimeoutException If the record is locked.
+     */
+    public long tryLock(long recNo)
+            throws RecordNotFoundException, RecordLockTimeoutException {
+        return lock(recNo, 0);
+    }
+
+    /**
+     * Locks several records, all or none of them. The records are locked in
+     * order of record number, whatever order they are given in. If they are
+     * not all locked within {@code timeoutMilliseconds}, the ones that were
+     * locked are unlocked again. A timeout of zero, or less, does not wait at
+     * all.
+     *
+     * @param recNos              the record numbers to lock, each only once
+     * @param timeoutMilliseconds how long to wait for all the records
+     * @return The cookies of the locks, in the order of {@code recNos}.
+     * @throws RecordNotFoundException    When locating a record that does not
+     *                                    exist, or had been previously deleted.
+     * @throws RecordLockTimeoutException If the records were not all unlocked
+     *                                    in time.
+     * @throws IllegalArgumentException   If a record number is given more than
+     *                                    once.
+     */
+    public long[] lockRecords(long[] recNos, long timeoutMilliseconds)
+            throws RecordNotFoundException, RecordLockTimeoutException {
+
+        long[] sortedRecordNumbers = recNos.clone();
+        Arrays.sort(sortedRecordNumbers);
+
+        for (int i = 1; i < sortedRecordNumbers.length; i++) {
+            if (sortedRecordNumbers[i] == sortedRecordNumbers[i - 1]) {
+                throw new IllegalArgumentException("Record "
+                        + sortedRecordNumbers[i] + " is given more than once.");
+            }
+        }
+
+        numberOfTimedLockAttempts.incrementAndGet();
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(timeoutMilliseconds);
+        long[] sortedCookies = new long[sortedRecordNumbers.length];
+        int lockedRecords = 0;
+
+        try {
+            for (; lockedRecords < sortedRecordNumbers.length;
+                 lockedRecords++) {
+
+                Long lockingCookie = lockRecord(
+                        sortedRecordNumbers[lockedRecords], true, deadline);
+
+                if (lockingCookie == null) {
+                    numberOfLockTimeouts.incrementAndGet();
+                    throw new RecordLockTimeoutException("Record "
+                            + sortedRecordNumbers[lockedRecords]
+                            + " was not unlocked within " + timeoutMilliseconds
+                            + " ms.");
+                }
+
+                sortedCookies[lockedRecords] = lockingCookie;
+            }
+
+        } finally {
+
+            if (lockedRecords < sortedRecordNumbers.length) {
+                for (int i = 0; i < lockedRecords; i++) {
+                    unlockRecordWhenCreatingOrDeletingRecord(
+                            sortedRecordNumbers[i], sortedCookies[i]);
+                }
+            }
+        }
+
+        long[] lockingCookies = new long[recNos.length];
+        for (int i = 0; i < recNos.length; i++) {
+            lockingCookies[i] = sortedCookies[
+                    Arrays.binarySearch(sortedRecordNumbers, recNos[i])];
+        }
+
+        return lockingCookies;
     }
 
     /**
      * Releases the lock on a record. Cookie must be the cookie returned when
-     * the record was locked; otherwise throws {@code SecurityException}.
+     * the record was locked; otherwise throws {@code SecurityException}. A
+     * lock on a record that has since been deleted is released too.
      *
      * @param recNo  the record number to unlock
      * @param cookie the cookie to unlock the record with
      * @throws SecurityException
      */
-    public synchronized void unlock(long recNo, long cookie)
-            throws SecurityException {
+    public void unlock(long recNo, long cookie) throws SecurityException {
+
+        if (isRecordLockedByThisUser(recNo, cookie)) {
+            unlockRecordWhenCreatingOrDeletingRecord(recNo, cookie);
+            return;
+        }
 
         try {
             DatabaseAccessCrudOperations.isValidRecordNumber(recNo);
@@ -81,56 +280,282 @@ class DatabaseAccessLockManager {
      * record.
      *
      * @param recordNumber the record number to lock
-     * @return A long representing the lock's owner's id.
+     * @return The cookie of the lock.
      * @throws RecordNotFoundException
      */
-    public synchronized long lockRecordWhenCreatingNewRecord(long recordNumber)
+    public long lockRecordWhenCreatingNewRecord(long recordNumber)
             throws RecordNotFoundException {
+        return lockRecordWhenCreatingNewRecord(recordNumber, false, 0);
+    }
+
+    /**
+     * This method is used for locking a deleted record number, to create a
+     * new record in its place, if it is not locked. It does not wait.
+     *
+     * @param recordNumber the record number to lock
+     * @return The cookie of the lock. Or NULL if the record is locked.
+     * @throws RecordNotFoundException
+     */
+    public Long tryLockRecordWhenCreatingNewRecord(long recordNumber)
+            throws RecordNotFoundException {
+        return lockRecordWhenCreatingNewRecord(
+                recordNumber, true, System.nanoTime());
+    }
+
+    /**
+     * This method is for unlocking a record when creating or deleting a new
+     * record.
+     *
+     * @param recordNumber  the record number to unlock
+     * @param lockingCookie the cookie to unlock the record with
+     * @throws SecurityException
+     */
+    public void unlockRecordWhenCreatingOrDeletingRecord(
+            long recordNumber, long lockingCookie) throws SecurityException {
+
+        LockStripe lockStripe = lockStripeOf(recordNumber);
+        lockStripe.lock.lock();
 
         try {
-            final long lockingCookie = Thread.currentThread().getId();
+            RecordLock recordLock = lockStripe.recordLocks.get(recordNumber);
 
-            while (isRecordLockedBySomeoneElse(recordNumber, lockingCookie)) {
-                wait();
+            if (recordLock == null || lockingCookie == NO_OWNER
+                    || recordLock.owner != lockingCookie) {
+                throw new SecurityException("Record "
+                        + recordNumber
+                        + " locked by another user.");
             }
 
-            lockedMap.put(recordNumber, lockingCookie);
-            return lockingCookie;
+            recordLock.owner = NO_OWNER;
+            passOnOrRemove(lockStripe, recordNumber, recordLock);
 
-        } catch (InterruptedException interruptedException) {
+        } finally {
 
-            throw new RecordNotFoundException(
-                    "Encountered a problem when trying to lock record: "
-                            + recordNumber + ".\n"
-                            + interruptedException.getMessage());
+            lockStripe.lock.unlock();
         }
+
+        recordUnlocked();
     }
 
     /**
-     * This method is for unlocking a record when creating or deleting a new
-     * record.
+     * Renews the lease of a lock, so that it lasts another thirty seconds.
+     * A client that holds a lock for longer than that must renew it, or the
+     * record is unlocked. Cookie must be the cookie returned when the record
+     * was locked; otherwise throws {@code SecurityException}.
      *
-     * @param recordNumber  the record number to unlock
-     * @param lockingCookie the cookie to unlock the record with
-     * @throws SecurityException
+     * @param recNo  the record number whose lock to renew
+     * @param cookie the cookie the record is locked with
+     * @throws SecurityException If the record is not locked with the cookie,
+     *                           for example because the lock expired.
      */
-    public synchronized void unlockRecordWhenCreatingOrDeletingRecord(
-            long recordNumber, long lockingCookie) throws SecurityException {
+    public void renewLock(long recNo, long cookie) throws SecurityException {
 
-        if (isRecordLockedByThisUser(recordNumber, lockingCookie)) {
-            lockedMap.remove(recordNumber);
-            notifyAll();
-        } else {
-            throw new SecurityException("Record "
-                    + recordNumber
-                    + " locked by another user.");
+        LockStripe lockStripe = lockStripeOf(recNo);
+        lockStripe.lock.lock();
+
+        try {
+            RecordLock recordLock = lockStripe.recordLocks.get(recNo);
+
+            if (recordLock == null || cookie == NO_OWNER
+                    || recordLock.owner != cookie) {
+                throw new SecurityException("Record "
+                        + recNo
+                        + " is not locked with this cookie.");
+            }
+
+            recordLock.leaseExpiry = leaseExpiryFrom(System.nanoTime());
+
+        } finally {
+
+            lockStripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the start of a write of a record to the database file.
+     *
+     * @param recordNumber the record number being written
+     */
+    public void startWritingRecord(long recordNumber) {
+        writesStarted.incrementAndGet(writeStripeOf(recordNumber));
+    }
+
+    /**
+     * Marks the end of a write of a record to the database file.
+     *
+     * @param recordNumber the record number that was written
+     */
+    public void finishWritingRecord(long recordNumber) {
+        writesFinished.incrementAndGet(writeStripeOf(recordNumber));
+    }
+
+    /**
+     * Marks the start of a read of a record. If the record is being written,
+     * the current thread yields until the write is finished.
+     *
+     * @param recordNumber the record number to read
+     * @return A stamp to check the read with, when it is finished.
+     */
+    public long startReadingRecord(long recordNumber) {
+
+        int writeStripe = writeStripeOf(recordNumber);
+
+        while (true) {
+
+            long readStamp = writesStarted.get(writeStripe);
+            if (writesFinished.get(writeStripe) == readStamp) return readStamp;
+            Thread.yield();
         }
     }
 
     /**
-     * Checks if the {@code recordNumber} is present in the {@code lockedMap},
-     * should the record be in the map, the value of the map's entry for the
-     * record is compared to the {@code lockingCookie}.
+     * Checks that a record was not written while it was read.
+     *
+     * @param recordNumber the record number that was read
+     * @param readStamp    the stamp returned when the read was started
+     * @return True, if the read is consistent.
+     * False, if the record may have been written, and must be read again.
+     */
+    public boolean isRecordUnchanged(long recordNumber, long readStamp) {
+        return writesStarted.get(writeStripeOf(recordNumber)) == readStamp;
+    }
+
+    /**
+     * Marks the start of the creation of a record. Records can be created
+     * concurrently, but not while the database file is compacted.
+     */
+    public void startCreatingRecord() {
+        recordCreationLock.readLock().lock();
+    }
+
+    /**
+     * Marks the end of the creation of a record.
+     */
+    public void finishCreatingRecord() {
+        recordCreationLock.readLock().unlock();
+    }
+
+    /**
+     * Marks the start of an update of a record that is not locked, for its
+     * version. Records can be updated concurrently, but not while the
+     * database file is compacted.
+     */
+    public void startVersionedUpdate() {
+        recordCreationLock.readLock().lock();
+    }
+
+    /**
+     * Marks the end of an update of a record for its version.
+     */
+    public void finishVersionedUpdate() {
+        recordCreationLock.readLock().unlock();
+    }
+
+    /**
+     * Suspends locking for a compaction of the database file. No new locks are
+     * granted to clients, and this method waits until all the records are
+     * unlocked and the records being created have been written. If the
+     * records are not all unlocked in time, locking is resumed.
+     *
+     * @param timeoutMilliseconds How long to wait for the records to be
+     *                            unlocked.
+     * @return True, if locking is suspended.
+     * False, if the records were not all unlocked in time.
+     * @throws InterruptedException If the thread is interrupted while waiting,
+     *                              locking is resumed before it is thrown.
+     */
+    public boolean suspendLocking(long timeoutMilliseconds)
+            throws InterruptedException {
+
+        long deadline = System.nanoTime()
+                + TimeUnit.MILLISECONDS.toNanos(timeoutMilliseconds);
+
+        synchronized (suspensionMonitor) {
+
+            lockingSuspended = true;
+
+            try {
+                while (numberOfLockedRecords.get() != 0) {
+
+                    long remainingMilliseconds = TimeUnit.NANOSECONDS
+                            .toMillis(deadline - System.nanoTime());
+
+                    if (remainingMilliseconds <= 0) {
+                        lockingSuspended = false;
+                        suspensionMonitor.notifyAll();
+                        return false;
+                    }
+
+                    suspensionMonitor.wait(remainingMilliseconds);
+                }
+
+            } catch (InterruptedException interruptedException) {
+
+                lockingSuspended = false;
+                suspensionMonitor.notifyAll();
+                throw interruptedException;
+            }
+        }
+
+        recordCreationLock.writeLock().lock();
+
+        return true;
+    }
+
+    /**
+     * Resumes locking after a compaction of the database file.
+     */
+    public void resumeLocking() {
+
+        recordCreationLock.writeLock().unlock();
+
+        synchronized (suspensionMonitor) {
+            lockingSuspended = false;
+            suspensionMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * Gets the number of timed locks, and tries to lock, that have been asked
+     * for.
+     *
+     * @return The number of timed lock attempts.
+     */
+    public long getNumberOfTimedLockAttempts() {
+        return numberOfTimedLockAttempts.get();
+    }
+
+    /**
+     * Gets the number of timed locks, and tries to lock, that gave up because
+     * the record was locked by a different client.
+     *
+     * @return The number of lock timeouts.
+     */
+    public long getNumberOfLockTimeouts() {
+        return numberOfLockTimeouts.get();
+    }
+
+    /**
+     * Gets the number of locks that expired, and were unlocked by the sweeper.
+     *
+     * @return The number of expired locks.
+     */
+    public long getNumberOfExpiredLocks() {
+        return numberOfExpiredLocks.get();
+    }
+
+    /**
+     * Gets the number of records that are locked.
+     *
+     * @return The number of locked records.
+     */
+    public int getNumberOfLockedRecords() {
+        return numberOfLockedRecords.get();
+    }
+
+    /**
+     * Checks if the {@code recordNumber} is locked, should the record be
+     * locked, the owner of the lock is compared to the {@code lockingCookie}.
      *
      * @param recordNumber  the record number to investigate
      * @param lockingCookie the cookie to investigate
@@ -140,14 +565,14 @@ class DatabaseAccessLockManager {
     public boolean isRecordLockedBySomeoneElse(
             long recordNumber, long lockingCookie) {
 
-        return isRecordLocked(recordNumber)
-                && getLockOwner(recordNumber) != lockingCookie;
+        long lockOwner = getLockOwner(recordNumber);
+
+        return lockOwner != NO_OWNER && lockOwner != lockingCookie;
     }
 
     /**
-     * Checks if the {@code recordNumber} is present in the {@code lockedMap},
-     * should the record be in the map, the value of the map's entry for the
-     * record is compared to the {@code lockingCookie}.
+     * Checks if the {@code recordNumber} is locked, should the record be
+     * locked, the owner of the lock is compared to the {@code lockingCookie}.
      *
      * @param recordNumber  the record number to investigate
      * @param lockingCookie the cookie to investigate
@@ -156,30 +581,373 @@ class DatabaseAccessLockManager {
      */
     boolean isRecordLockedByThisUser(long recordNumber, long lockingCookie) {
 
-        return isRecordLocked(recordNumber)
+        return lockingCookie != NO_OWNER
                 && getLockOwner(recordNumber) == lockingCookie;
     }
 
     /**
-     * Checks the {@code lockedMap} to see if {@code recordNumber} is present.
+     * Checks if the {@code recordNumber} is locked.
      *
      * @param recordNumber the record number to investigate
-     * @return True, if the record is in the map of locked records.
-     * False, if the record is not in the map of locked records.
+     * @return True, if the record is locked.
+     * False, if the record is not locked.
      */
     boolean isRecordLocked(long recordNumber) {
 
-        return lockedMap.containsKey(recordNumber);
+        return getLockOwner(recordNumber) != NO_OWNER;
     }
 
     /**
-     * Gets the id number of the current owner of the lock on a record.
+     * Gets the cookie of the lock on a record.
      *
      * @param recordNumber the record number to investigate
-     * @return A long representing the lock's owner's id.
+     * @return The cookie of the lock. Or zero if the record is not locked.
      */
-    Long getLockOwner(long recordNumber) {
+    long getLockOwner(long recordNumber) {
+
+        LockStripe lockStripe = lockStripeOf(recordNumber);
+        lockStripe.lock.lock();
+
+        try {
+            RecordLock recordLock = lockStripe.recordLocks.get(recordNumber);
+
+            return recordLock == null ? NO_OWNER : recordLock.owner;
+
+        } finally {
+
+            lockStripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Unlocks the records whose leases expired before {@code now}, passing
+     * each on to the next client waiting for it. The sweeper calls it with
+     * the current time.
+     *
+     * @param now the {@code System.nanoTime()} to expire the leases at
+     * @return The number of locks that expired.
+     */
+    int expireLeases(long now) {
+
+        int expiredLocks = 0;
+
+        for (LockStripe lockStripe : lockStripes) {
+
+            lockStripe.lock.lock();
+
+            try {
+                Iterator<Map.Entry<Long, RecordLock>> recordLocks =
+                        lockStripe.recordLocks.entrySet().iterator();
+
+                while (recordLocks.hasNext()) {
+
+                    RecordLock recordLock = recordLocks.next().getValue();
+
+                    if (recordLock.owner == NO_OWNER
+                            || recordLock.leaseExpiry - now > 0) continue;
 
-        return lockedMap.get(recordNumber);
+                    recordLock.owner = NO_OWNER;
+                    expiredLocks++;
+
+                    if (recordLock.waiters > 0) {
+                        recordLock.released.signal();
+                    } else {
+                        recordLocks.remove();
+                    }
+                }
+
+            } finally {
+
+                lockStripe.lock.unlock();
+            }
+        }
+
+        for (int i = 0; i < expiredLocks; i++) {
+            numberOfExpiredLocks.incrementAndGet();
+            recordUnlocked();
+        }
+
+        return expiredLocks;
+    }
+
+    // ---------- Private Methods ----------
+    private static long leaseExpiryFrom(long now) {
+        return now + TimeUnit.MILLISECONDS.toNanos(LOCK_LEASE_MILLISECONDS);
+    }
+
+    /**
+     * Starts the daemon thread that expires the leases of the locks.
+     */
+    private void startLeaseSweeper() {
+
+        ScheduledExecutorService leaseSweeper =
+                Executors.newSingleThreadScheduledExecutor(
+                        new ThreadFactory() {
+                            @Override
+                            public Thread newThread(Runnable runnable) {
+                                Thread thread = new Thread(runnable,
+                                        "Lock Lease Sweeper");
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+
+        leaseSweeper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                expireLeases(System.nanoTime());
+            }
+        }, LEASE_SWEEP_INTERVAL_MILLISECONDS, LEASE_SWEEP_INTERVAL_MILLISECONDS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Counts a record as unlocked, and wakes a compaction waiting for the
+     * last locked record to be unlocked.
+     */
+    private void recordUnlocked() {
+
+        if (numberOfLockedRecords.decrementAndGet() == 0 && lockingSuspended) {
+            synchronized (suspensionMonitor) {
+                suspensionMonitor.notifyAll();
+            }
+        }
+    }
+    private static int writeStripeOf(long recordNumber) {
+        return (int) (recordNumber & (NUMBER_OF_WRITE_STRIPES - 1));
+    }
+
+    private LockStripe lockStripeOf(long recordNumber) {
+        return lockStripes[(int) (recordNumber & (NUMBER_OF_LOCK_STRIPES - 1))];
+    }
+
+    /**
+     * Locks a record, waiting until it is unlocked by a different client, or,
+     * if the lock is {@code timed}, until the {@code deadline}.
+     *
+     * @param recNo    the record number to lock
+     * @param timed    whether to give up at the {@code deadline}
+     * @param deadline the {@code System.nanoTime()} to give up at
+     * @return The cookie of the lock. Or NULL if the
+     * record was not unlocked in time.
+     * @throws RecordNotFoundException
+     */
+    private Long lockRecord(long recNo, boolean timed, long deadline)
+            throws RecordNotFoundException {
+
+        while (true) {
+
+            if (!awaitLockingResumed(recNo, timed, deadline)) return null;
+            DatabaseAccessCrudOperations.isValidRecordNumber(recNo);
+            Long lockingCookie =
+                    lockRecordWhenCreatingNewRecord(recNo, timed, deadline);
+            if (lockingCookie == null) return null;
+
+            if (!lockingSuspended) {
+
+                // A versioned update may have checked the record was not
+                // locked just before it was, so wait for it to be written.
+                DatabaseRecordVersions.getInstance().getVersion(recNo);
+
+                // The record may have been deleted while this client waited.
+                try {
+                    DatabaseAccessCrudOperations.isValidRecordNumber(recNo);
+                } catch (RecordNotFoundException e) {
+                    unlockRecordWhenCreatingOrDeletingRecord(
+                            recNo, lockingCookie);
+                    throw e;
+                }
+
+                return lockingCookie;
+            }
+
+            // A compaction started while the record was being locked.
+            unlockRecordWhenCreatingOrDeletingRecord(recNo, lockingCookie);
+        }
+    }
+
+    /**
+     * Locks a record number, waiting until it is unlocked by a different
+     * client, or, if the lock is {@code timed}, until the {@code deadline}.
+     *
+     * @param recordNumber the record number to lock
+     * @param timed        whether to give up at the {@code deadline}
+     * @param deadline     the {@code System.nanoTime()} to give up at
+     * @return The cookie of the lock. Or NULL if the
+     * record was not unlocked in time.
+     * @throws RecordNotFoundException If the thread is interrupted while
+     *                                 waiting.
+     */
+    private Long lockRecordWhenCreatingNewRecord(long recordNumber,
+                                                 boolean timed,
+                                                 long deadline)
+            throws RecordNotFoundException {
+
+        LockStripe lockStripe = lockStripeOf(recordNumber);
+        lockStripe.lock.lock();
+
+        try {
+            RecordLock recordLock = lockStripe.recordLocks.get(recordNumber);
+
+            if (recordLock == null) {
+                recordLock = new RecordLock(lockStripe.lock.newCondition());
+                lockStripe.recordLocks.put(recordNumber, recordLock);
+            }
+
+            while (recordLock.owner != NO_OWNER) {
+
+                recordLock.waiters++;
+
+                try {
+                    if (!timed) {
+                        recordLock.released.await();
+                    } else if (recordLock.released
+                            .awaitNanos(deadline - System.nanoTime()) <= 0
+                            && recordLock.owner != NO_OWNER) {
+
+                        recordLock.waiters--;
+                        return null;
+                    }
+                    recordLock.waiters--;
+
+                } catch (InterruptedException interruptedException) {
+
+                    // The record may have been passed on to this client.
+                    recordLock.waiters--;
+                    passOnOrRemove(lockStripe, recordNumber, recordLock);
+
+                    throw new RecordNotFoundException(
+                            "Encountered a problem when trying to lock record: "
+                                    + recordNumber + ".\n"
+                                    + interruptedException.getMessage());
+                }
+            }
+
+            numberOfLockedRecords.incrementAndGet();
+            recordLock.owner = lockStripe.newCookie();
+            recordLock.leaseExpiry = leaseExpiryFrom(System.nanoTime());
+
+            return recordLock.owner;
+
+        } finally {
+
+            lockStripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Waits while locking is suspended for a compaction.
+     *
+     * @param recordNumber the record number that is to be locked
+     * @param timed        whether to give up at the {@code deadline}
+     * @param deadline     the {@code System.nanoTime()} to give up at
+     * @return True, if locking is not suspended.
+     * False, if locking was still suspended at the {@code deadline}.
+     * @throws RecordNotFoundException If the thread is interrupted while
+     *                                 waiting.
+     */
+    private boolean awaitLockingResumed(long recordNumber, boolean timed,
+                                        long deadline)
+            throws RecordNotFoundException {
+
+        if (!lockingSuspended) return true;
+
+        synchronized (suspensionMonitor) {
+
+            try {
+                while (lockingSuspended) {
+
+                    if (!timed) {
+                        suspensionMonitor.wait();
+                        continue;
+                    }
+
+                    long remainingNanoseconds = deadline - System.nanoTime();
+                    if (remainingNanoseconds <= 0) return false;
+
+                    TimeUnit.NANOSECONDS.timedWait(
+                            suspensionMonitor, remainingNanoseconds);
+                }
+
+                return true;
+
+            } catch (InterruptedException interruptedException) {
+
+                throw new RecordNotFoundException(
+                        "Encountered a problem when trying to lock record: "
+                                + recordNumber + ".\n"
+                                + interruptedException.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Wakes the next client waiting for a record that is not locked, or, when
+     * no client is waiting, forgets the record. The stripe's lock must be held.
+     *
+     * @param lockStripe   the stripe of the record
+     * @param recordNumber the record number
+     * @param recordLock   the lock of the record
+     */
+    private static void passOnOrRemove(LockStripe lockStripe,
+                                       long recordNumber,
+                                       RecordLock recordLock) {
+
+        if (recordLock.owner != NO_OWNER) return;
+
+        if (recordLock.waiters > 0) {
+            recordLock.released.signal();
+        } else {
+            lockStripe.recordLocks.remove(recordNumber);
+        }
+    }
+
+    /**
+     * A stripe of the record locks, the locks of the records whose numbers
+     * have the same remainder when divided by the number of stripes.
+     */
+    private static class LockStripe {
+
+        // Guards the map and the record locks in it.
+        private final ReentrantLock lock = new ReentrantLock();
+        // The locks of the records (key) that are locked or waited for.
+        private final Map<Long, RecordLock> recordLocks = new HashMap<>();
+        // Draws the cookies of the locks, guarded by the stripe's lock.
+        private final SecureRandom cookies = new SecureRandom();
+
+        /**
+         * Draws the cookie of a new lock. The stripe's lock must be held.
+         *
+         * @return A random cookie that is not zero.
+         */
+        private long newCookie() {
+
+            long cookie;
+            do {
+                cookie = cookies.nextLong();
+            } while (cookie == NO_OWNER);
+
+            return cookie;
+        }
+    }
+
+    /**
+     * The lock of a single record, and the queue of the clients waiting for
+     * it.
+     */
+    private static class RecordLock {
+
+        // Signalled when the record is unlocked.
+        private final Condition released;
+        // The cookie of the lock, or zero when the record is not locked.
+        private long owner = NO_OWNER;
+        // The number of clients waiting for the record.
+        private int waiters;
+        // The System.nanoTime() at which the lock expires.
+        private long leaseExpiry;
+
+        private RecordLock(Condition released) {
+            this.released = released;
+        }
     }
 }
\ No newline at end of file
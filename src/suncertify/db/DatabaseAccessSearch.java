@@ -2,7 +2,9 @@ package suncertify.db;
 
 import suncertify.utilities.UrlyBirdApplicationConstants;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -22,138 +24,272 @@ class DatabaseAccessSearch {
      * value that begins with {@code criteria[n]}.
      * <p/>
      * For example, "Fred" matches "Fred" or "Freddy".
+     * <p/>
+     * The matching ignores case and an empty {@code criteria[n]} matches any
+     * field value. Searches on the hotel name and location use the in-memory
+     * prefix indexes, any other search is a single sequential pass over the
+     * database file.
      *
      * @param criteria The search criteria to match against.
      * @return An array of record numbers that match the {@code criteria}.
      */
     public static long[] findByCriteria(String[] criteria) {
 
-        long[] validRecordNumbers = getAllValidRecordNumbers();
-
-        if (criteria[0] == null && criteria[1] == null) {
-            return validRecordNumbers;
-        } else if (!criteria[0].equals(
-                UrlyBirdApplicationConstants.EMPTY_STRING)
-                && criteria[1].equals(
-                UrlyBirdApplicationConstants.EMPTY_STRING)) {
-            return searchOnCriteria(criteria, 0, validRecordNumbers);
-        } else if (criteria[0].equals(UrlyBirdApplicationConstants.EMPTY_STRING)
-                && !criteria[1].equals(
-                UrlyBirdApplicationConstants.EMPTY_STRING)) {
-            return searchOnCriteria(criteria, 1, validRecordNumbers);
-        } else {
-            return searchOnCriteria(criteria, validRecordNumbers);
+        if (isIndexedSearch(criteria)) {
+            return searchIndexes(criteria);
         }
+
+        return scanDatabaseFile(criteria);
     }
 
-    // ---------- Private Methods ----------
+    /**
+     * Finds the records that match the specified {@code criteria}, like
+     * {@link #findByCriteria(String[])}, and reads them. A record that is
+     * deleted after it is found is left out.
+     *
+     * @param criteria The search criteria to match against.
+     * @return The records that match the {@code criteria}, with their record
+     * numbers, in ascending order of record number.
+     */
+    public static DatabaseRecord[] findAndRead(String[] criteria) {
+
+        long[] recordNumbers = findByCriteria(criteria);
+        String[][] records =
+                DatabaseAccessCrudOperations.readRecords(recordNumbers);
+        List<DatabaseRecord> databaseRecords =
+                new ArrayList<>(recordNumbers.length);
+
+        for (int i = 0; i < recordNumbers.length; i++) {
+            if (records[i] != null) {
+                databaseRecords.add(
+                        new DatabaseRecord(recordNumbers[i], records[i]));
+            }
+        }
+
+        return databaseRecords.toArray(
+                new DatabaseRecord[databaseRecords.size()]);
+    }
+
+    /**
+     * Searches the name and location prefix indexes. When there is a criterion
+     * for both fields, the record numbers that match both are returned.
+     *
+     * @param criteria The search criteria to match against.
+     * @return An array of record numbers that match the {@code criteria}, in
+     * ascending order.
+     */
+    static long[] searchIndexes(String[] criteria) {
+
+        DatabaseAccessIndexManager databaseAccessIndexManager =
+                DatabaseAccessIndexManager.getInstance();
+        String name = criteria[DatabaseAccessIndexManager.NAME_FIELD_INDEX];
+        String location = criteria.length
+                > DatabaseAccessIndexManager.LOCATION_FIELD_INDEX
+                ? criteria[DatabaseAccessIndexManager.LOCATION_FIELD_INDEX]
+                : null;
+
+        if (isMatchingAnyValue(location)) {
+            return databaseAccessIndexManager.findByNamePrefix(name);
+        } else if (isMatchingAnyValue(name)) {
+            return databaseAccessIndexManager.findByLocationPrefix(location);
+        } else {
+            return intersectSortedArrays(
+                    databaseAccessIndexManager.findByNamePrefix(name),
+                    databaseAccessIndexManager.findByLocationPrefix(location));
+        }
+    }
 
     /**
-     * This method searches the database records that correspond to
-     * {@code validRecordNumbers} for values in the {@code positionInCriteria}
-     * position that start with {@code criteria[positionInCriteria]} and returns
-     * their record numbers as an array.
+     * Searches the database in one sequential pass over the database file,
+     * comparing the criteria with the raw bytes of each record.
      *
-     * @param criteria           The criteria to match against.
-     * @param positionInCriteria The position in the criteria String array to
-     *                           perform the match against.
-     * @param validRecordNumbers An array of the valid database record numbers
-     *                           to search against.
-     * @return A {@code long[]} containing the record numbers of the database
-     * records that match {@code criteria[positionInStrings]}.
+     * @param criteria The search criteria to match against.
+     * @return An array of record numbers that match the {@code criteria}, in
+     * ascending order.
      */
-    private static long[] searchOnCriteria(String[] criteria,
-                                           int positionInCriteria,
-                                           long[] validRecordNumbers) {
+    static long[] scanDatabaseFile(String[] criteria) {
 
+        byte[][] lowerCasePrefixes = criteriaAsLowerCaseBytes(criteria);
         List<Long> searchResults = new ArrayList<>();
 
-        for (long recordNumber : validRecordNumbers) {
+        // A criterion that is not ASCII can not match the ASCII database file.
+        if (lowerCasePrefixes == null) {
+            return longListToLongArray(searchResults);
+        }
 
-            try {
-                String record =
-                        DatabaseAccessCrudOperations
-                                .readRecord(recordNumber)[positionInCriteria];
+        try {
+            DatabaseFileScanner databaseFileScanner = new DatabaseFileScanner();
 
-                if (record.toLowerCase().startsWith(
-                        criteria[positionInCriteria].toLowerCase())) {
-                    searchResults.add(recordNumber);
-                }
+            while (databaseFileScanner.nextRecord()) {
 
-            } catch (RecordNotFoundException ignored) {
+                if (databaseFileScanner.isValidRecord()
+                        && isMatchingRecord(databaseFileScanner,
+                        lowerCasePrefixes)) {
+                    searchResults.add(databaseFileScanner.getRecordNumber());
+                }
             }
+
+        } catch (IOException e) {
+
+            System.out.println("Error when searching the database file.");
+            e.printStackTrace();
         }
 
         return longListToLongArray(searchResults);
     }
 
+    // ---------- Private Methods ----------
+
     /**
-     * This method searches the database records that correspond to
-     * {@code validRecordNumbers} for the values that start with the contents of
-     * the {@code criteria} parameter and returns
-     * their record numbers as an array.
+     * Checks if the search can be answered by the name and location indexes.
+     * That is, there is a criterion for the name or the location, and every
+     * other criterion matches any field value. The indexes do not hold the
+     * padding at the end of the field values, so a criterion that ends with
+     * white space is matched by scanning the database file. So is a criterion
+     * that is not ASCII, as the scan lower cases only ASCII letters.
      *
-     * @param criteria           The criteria to match against.
-     * @param validRecordNumbers An array of the valid database record numbers
-     *                           to search against.
-     * @return A {@code long[]} containing the record numbers of the database
-     * records that fully match {@code criteria}.
+     * @param criteria The search criteria to examine.
+     * @return True, if the search can use the indexes.
+     * False, if the database file must be scanned.
      */
-    private static long[] searchOnCriteria(String[] criteria,
-                                           long[] validRecordNumbers) {
+    private static boolean isIndexedSearch(String[] criteria) {
 
-        List<Long> searchResults = new ArrayList<>();
+        boolean hasIndexedCriterion = false;
 
-        for (long recordNumber : validRecordNumbers) {
+        for (int i = 0; i < criteria.length; i++) {
 
-            try {
-                boolean allMatch = true;
-                String[] records =
-                        DatabaseAccessCrudOperations.readRecord(recordNumber);
+            if (isMatchingAnyValue(criteria[i])) continue;
 
-                for (int i = 0; i < criteria.length; i++) {
+            if (criteria[i].charAt(criteria[i].length() - 1) <= ' '
+                    || !isAscii(criteria[i])) {
+                return false;
+            } else if (i == DatabaseAccessIndexManager.NAME_FIELD_INDEX
+                    || i == DatabaseAccessIndexManager.LOCATION_FIELD_INDEX) {
+                hasIndexedCriterion = true;
+            } else {
+                return false;
+            }
+        }
 
-                    if (!records[i].toLowerCase().startsWith(
-                            criteria[i].toLowerCase())) {
-                        allMatch = false;
-                        break;
-                    }
-                }
+        return hasIndexedCriterion;
+    }
 
-                if (allMatch) searchResults.add(recordNumber);
+    /**
+     * Checks if every field of the scanner's current record starts with the
+     * corresponding prefix.
+     *
+     * @param databaseFileScanner The scanner positioned on the record.
+     * @param lowerCasePrefixes   The lower case prefixes to match against, a
+     *                            null prefix matches any field value.
+     * @return True, if the record matches all the prefixes.
+     * False, if the record does not match all the prefixes.
+     */
+    private static boolean isMatchingRecord(
+            DatabaseFileScanner databaseFileScanner,
+            byte[][] lowerCasePrefixes) {
+
+        for (int i = 0; i < lowerCasePrefixes.length; i++) {
 
-            } catch (RecordNotFoundException ignored) {
+            if (lowerCasePrefixes[i] != null
+                    && !databaseFileScanner.fieldStartsWith(
+                    i, lowerCasePrefixes[i])) {
+                return false;
             }
         }
 
-        return longListToLongArray(searchResults);
+        return true;
+    }
+
+    /**
+     * Converts the search criteria to lower case ASCII bytes, so they can be
+     * compared with the raw bytes of the database file. Criteria that match
+     * any field value, null or empty, are converted to null.
+     *
+     * @param criteria The search criteria to convert.
+     * @return The criteria as lower case ASCII bytes. Or NULL if one of the
+     * criteria contains a character that is not ASCII.
+     */
+    private static byte[][] criteriaAsLowerCaseBytes(String[] criteria) {
+
+        int numberOfCriteria = Math.min(criteria.length,
+                DatabaseFileUtils.getInstance().getNumberOfFields());
+        byte[][] lowerCasePrefixes = new byte[numberOfCriteria][];
+
+        for (int i = 0; i < numberOfCriteria; i++) {
+
+            if (isMatchingAnyValue(criteria[i])) continue;
+
+            lowerCasePrefixes[i] = new byte[criteria[i].length()];
+
+            for (int j = 0; j < criteria[i].length(); j++) {
+
+                char character = criteria[i].charAt(j);
+                if (character > 127) return null;
+
+                lowerCasePrefixes[i][j] =
+                        DatabaseFileScanner.toLowerCase((byte) character);
+            }
+        }
+
+        return lowerCasePrefixes;
+    }
+
+    /**
+     * Checks if every character of a criterion is ASCII.
+     *
+     * @param criterion The criterion to examine.
+     * @return True, if the criterion is ASCII.
+     * False, if the criterion has a character that is not ASCII.
+     */
+    private static boolean isAscii(String criterion) {
+
+        for (int i = 0; i < criterion.length(); i++) {
+            if (criterion.charAt(i) > 127) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks if a criterion matches any field value, that is, if it is null or
+     * empty.
+     *
+     * @param criterion The criterion to examine.
+     * @return True, if the criterion matches any field value.
+     * False, if the criterion must be compared with the field value.
+     */
+    private static boolean isMatchingAnyValue(String criterion) {
+
+        return criterion == null
+                || criterion.equals(UrlyBirdApplicationConstants.EMPTY_STRING);
     }
 
     /**
-     * Method to get all the records numbers for all the valid records in the
-     * Database File.
+     * Finds the record numbers that are in both of the sorted arrays.
      *
-     * @return A {@code long[]} that contains all valid record numbers.
+     * @param first  The first array of record numbers, in ascending order.
+     * @param second The second array of record numbers, in ascending order.
+     * @return The record numbers in both arrays, in ascending order.
      */
-    private static long[] getAllValidRecordNumbers() {
+    private static long[] intersectSortedArrays(long[] first, long[] second) {
 
-        DatabaseFileUtils databaseFileUtils = DatabaseFileUtils.getInstance();
-        databaseFileUtils.updateNumberOfRecordsInDatabase();
-        long recordsInDatabase =
-                databaseFileUtils.getNumberOfRecordsInDatabase();
-        List<Long> validRecordNumbers = new ArrayList<>();
+        long[] intersection = new long[Math.min(first.length, second.length)];
+        int i = 0, j = 0, k = 0;
 
-        for (long recordNumber = 0; recordNumber < recordsInDatabase;
-             recordNumber++) {
+        while (i < first.length && j < second.length) {
 
-            try {
-                DatabaseAccessCrudOperations.readRecord(recordNumber);
-                validRecordNumbers.add(recordNumber);
-            } catch (RecordNotFoundException ignored) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                intersection[k++] = first[i];
+                i++;
+                j++;
             }
         }
 
-        return longListToLongArray(validRecordNumbers);
+        return Arrays.copyOf(intersection, k);
     }
 
     /**
@@ -0,0 +1,149 @@
+package suncertify.db;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index of the values of one field of the database records. The
+ * values are kept in a sorted map, from the normalised field value to the
+ * numbers of the records that have that value. All the values that start with
+ * a prefix are next to each other in the map, so a prefix search costs the
+ * length of the prefix and the number of matches, rather than a scan of the
+ * database file.
+ * <p/>
+ * Many searches can use the index at the same time, an update of the index
+ * waits for the searches in progress to finish.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseFieldPrefixIndex {
+
+    // The record numbers (value) of the records with each field value (key).
+    private final NavigableMap<String, Set<Long>> recordNumbersByFieldValue =
+            new TreeMap<>();
+    private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Adds a record to the index.
+     *
+     * @param fieldValue   The value of the indexed field in the record.
+     * @param recordNumber The record number of the record.
+     */
+    public void add(String fieldValue, long recordNumber) {
+
+        String normalisedFieldValue = normalise(fieldValue);
+
+        readWriteLock.writeLock().lock();
+        try {
+            Set<Long> recordNumbers =
+                    recordNumbersByFieldValue.get(normalisedFieldValue);
+
+            if (recordNumbers == null) {
+                recordNumbers = new TreeSet<>();
+                recordNumbersByFieldValue.put(
+                        normalisedFieldValue, recordNumbers);
+            }
+
+            recordNumbers.add(recordNumber);
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a record from the index.
+     *
+     * @param fieldValue   The value of the indexed field in the record.
+     * @param recordNumber The record number of the record.
+     */
+    public void remove(String fieldValue, long recordNumber) {
+
+        String normalisedFieldValue = normalise(fieldValue);
+
+        readWriteLock.writeLock().lock();
+        try {
+            Set<Long> recordNumbers =
+                    recordNumbersByFieldValue.get(normalisedFieldValue);
+
+            if (recordNumbers != null && recordNumbers.remove(recordNumber)
+                    && recordNumbers.isEmpty()) {
+                recordNumbersByFieldValue.remove(normalisedFieldValue);
+            }
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the records whose field value starts with {@code prefix}, ignoring
+     * case.
+     *
+     * @param prefix The prefix to match against.
+     * @return The record numbers of the matching records, in ascending order.
+     */
+    public long[] find(String prefix) {
+
+        String normalisedPrefix = normalise(prefix);
+
+        readWriteLock.readLock().lock();
+        try {
+            // The field values are ASCII, so every value that starts with the
+            // prefix sorts before the prefix followed by the largest char.
+            Map<String, Set<Long>> matchingFieldValues =
+                    recordNumbersByFieldValue.subMap(
+                            normalisedPrefix, true,
+                            normalisedPrefix + Character.MAX_VALUE, false);
+
+            long[] recordNumbers = new long[16];
+            int numberOfRecords = 0;
+
+            for (Set<Long> recordNumbersWithValue
+                    : matchingFieldValues.values()) {
+                for (Long recordNumber : recordNumbersWithValue) {
+
+                    if (numberOfRecords == recordNumbers.length) {
+                        recordNumbers = Arrays.copyOf(
+                                recordNumbers, numberOfRecords * 2);
+                    }
+                    recordNumbers[numberOfRecords++] = recordNumber;
+                }
+            }
+
+            recordNumbers = Arrays.copyOf(recordNumbers, numberOfRecords);
+            Arrays.sort(recordNumbers);
+            return recordNumbers;
+
+        } finally {
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normalises a field value, or a prefix, for the index. The padding at the
+     * end of the value is removed and the value is converted to lower case,
+     * the same in every locale.
+     *
+     * @param fieldValue The field value to normalise.
+     * @return The normalised field value.
+     */
+    static String normalise(String fieldValue) {
+
+        int length = fieldValue.length();
+
+        while (length > 0 && fieldValue.charAt(length - 1) <= ' ') {
+            length--;
+        }
+
+        return fieldValue.substring(0, length).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,220 @@
+package suncertify.db;
+
+import suncertify.utilities.UrlyBirdApplicationObjectsFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+
+/**
+ * The default {@link DatabaseFileStorage}. It reads and writes the database
+ * file with the positional methods of a {@code FileChannel}, so each record
+ * read or write is a single system call.
+ * <p/>
+ * When the database file is replaced by a compaction, a read that is in
+ * progress on the old file finds its channel closed, it is retried on the
+ * new file.
+ * <p/>
+ * A {@code FileChannel} is closed for every thread when a thread that is
+ * using it is interrupted, as an RMI thread or a GUI worker can be. The
+ * channel is then opened again, and the reads and writes that found it closed
+ * are retried on it, with the interrupt held back until they are done, so one
+ * interrupted thread does not stop the others reading the database file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseFileChannelStorage extends DatabaseFileStorage {
+
+    // The channel to the database file, opened again if it is interrupted.
+    private volatile FileChannel databaseFileChannel;
+    // True, once the storage is closed, so its channel is not opened again.
+    private volatile boolean closed;
+
+    /**
+     * The constructor for the {@code DatabaseFileChannelStorage} class.
+     *
+     * @param databaseFileChannel The open channel to the database file.
+     */
+    DatabaseFileChannelStorage(FileChannel databaseFileChannel) {
+        this.databaseFileChannel = databaseFileChannel;
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Reads bytes from the database file, starting at {@code position}, until
+     * the {@code buffer} is full or the end of the file is reached.
+     *
+     * @param buffer   The buffer to read the bytes into.
+     * @param position The position in the database file to start reading at.
+     * @return The number of bytes read, which is less than the space that was
+     * remaining in the {@code buffer} when the end of the file is reached.
+     * @throws IOException If there is a problem reading the database file.
+     */
+    @Override
+    public int read(ByteBuffer buffer, long position) throws IOException {
+
+        FileChannel channel = databaseFileChannel;
+        int bufferPosition = buffer.position();
+        int totalBytesRead = 0;
+
+        try {
+            while (buffer.hasRemaining()) {
+
+                int bytesRead = channel.read(
+                        buffer, position + totalBytesRead);
+                if (bytesRead < 0) break;
+                totalBytesRead += bytesRead;
+            }
+
+        } catch (ClosedChannelException e) {
+
+            buffer.position(bufferPosition);
+            boolean interrupted = Thread.interrupted();
+
+            try {
+                return storageToRetryOn(channel, e).read(buffer, position);
+            } finally {
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        }
+
+        return totalBytesRead;
+    }
+
+    /**
+     * Writes all the remaining bytes in the {@code buffer} to the database
+     * file, starting at {@code position}.
+     *
+     * @param buffer   The buffer containing the bytes to write.
+     * @param position The position in the database file to start writing at.
+     * @throws IOException If there is a problem writing the database file.
+     */
+    @Override
+    public void write(ByteBuffer buffer, long position) throws IOException {
+
+        FileChannel channel = databaseFileChannel;
+        int bufferPosition = buffer.position();
+        long bytesWritten = 0;
+
+        try {
+            while (buffer.hasRemaining()) {
+                bytesWritten += channel.write(
+                        buffer, position + bytesWritten);
+            }
+
+        } catch (ClosedChannelException e) {
+
+            // The bytes written before the channel was closed are written
+            // again, they are the same bytes.
+            buffer.position(bufferPosition);
+            boolean interrupted = Thread.interrupted();
+
+            try {
+                storageToRetryOn(channel, e).write(buffer, position);
+            } finally {
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets the current size of the database file.
+     *
+     * @return The size of the database file in bytes.
+     * @throws IOException If there is a problem reading the database file.
+     */
+    @Override
+    public long size() throws IOException {
+
+        FileChannel channel = databaseFileChannel;
+
+        try {
+            return channel.size();
+
+        } catch (ClosedChannelException e) {
+
+            boolean interrupted = Thread.interrupted();
+
+            try {
+                return storageToRetryOn(channel, e).size();
+            } finally {
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * A helper method to close the {@code databaseFileChannel}.
+     */
+    @Override
+    public void close() {
+        try {
+            closed = true;
+            databaseFileChannel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing Database File.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Cuts the database file down to {@code size} bytes.
+     *
+     * @param size The new size of the database file in bytes.
+     * @throws IOException If there is a problem cutting the database file.
+     */
+    @Override
+    void truncate(long size) throws IOException {
+        databaseFileChannel.truncate(size);
+    }
+
+    // ---------- Private Methods ----------
+
+    /**
+     * Gets the storage to retry a read or write on, after the channel it was
+     * made on was found closed. If the database file was replaced by a
+     * compaction it is the new storage, otherwise the channel was closed by
+     * an interrupt, and it is this storage, with its channel opened again.
+     *
+     * @param closedChannel          The channel that was found closed.
+     * @param closedChannelException The exception the channel threw.
+     * @return The storage to retry the read or write on.
+     * @throws ClosedChannelException If this storage was closed, and not
+     *                                replaced, or the database file can not
+     *                                be opened again.
+     */
+    private DatabaseFileStorage storageToRetryOn(
+            FileChannel closedChannel,
+            ClosedChannelException closedChannelException)
+            throws ClosedChannelException {
+
+        DatabaseFileStorage databaseFileStorage =
+                DatabaseFileStorage.getInstance();
+
+        if (databaseFileStorage != this) return databaseFileStorage;
+
+        reopenDatabaseFileChannel(closedChannel, closedChannelException);
+        return this;
+    }
+
+    private synchronized void reopenDatabaseFileChannel(
+            FileChannel closedChannel,
+            ClosedChannelException closedChannelException)
+            throws ClosedChannelException {
+
+        if (closed) throw closedChannelException;
+
+        // Another thread may have already opened it again.
+        if (databaseFileChannel != closedChannel) return;
+
+        RandomAccessFile databaseRandomAccessFile =
+                UrlyBirdApplicationObjectsFactory.getDatabaseRandomAccessFile();
+        if (databaseRandomAccessFile == null) throw closedChannelException;
+
+        databaseFileChannel = databaseRandomAccessFile.getChannel();
+    }
+}
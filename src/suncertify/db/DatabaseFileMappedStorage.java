@@ -0,0 +1,217 @@
+package suncertify.db;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link DatabaseFileStorage} that maps the whole database file into memory.
+ * Reads are copies out of the mapping and writes are made in place, so neither
+ * needs a system call. The records are fixed width, so a record read is a
+ * single copy from a known offset.
+ * <p/>
+ * When a write goes past the end of the mapping, as it does when
+ * {@code createRecord} appends a record, the file is remapped with room for
+ * at least as many records again, so appending many records only remaps the
+ * file a few times. The old mappings are only released when they are garbage
+ * collected, so remapping for every record would soon use up the mappings a
+ * process may have. The end of the records is kept apart from the end of the
+ * mapping, and is the size this storage reports. The spare records past it are
+ * flagged as deleted, and are cut off the file when it is closed, or, if the
+ * application stops before it is closed, when it is next opened.
+ * <p/>
+ * A single mapping is limited to {@code Integer.MAX_VALUE} bytes, which is far
+ * larger than the URLyBird database file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseFileMappedStorage extends DatabaseFileStorage {
+
+    // The least the mapping grows by, so a small file is not remapped often.
+    private static final long MINIMUM_GROWTH_BYTES = 1024 * 1024;
+
+    // The channel to the database file, used to create the mappings.
+    private final FileChannel databaseFileChannel;
+    // The current mapping of the whole database file, and its spare records.
+    private volatile MappedByteBuffer mappedDatabaseFile;
+    // The end of the last record written, the size of the database file.
+    private volatile long databaseFileSize;
+
+    /**
+     * The constructor for the {@code DatabaseFileMappedStorage} class. It maps
+     * the whole database file into memory.
+     *
+     * @param databaseFileChannel The open channel to the database file.
+     * @throws IOException If the database file can not be mapped.
+     */
+    DatabaseFileMappedStorage(FileChannel databaseFileChannel)
+            throws IOException {
+
+        this.databaseFileChannel = databaseFileChannel;
+        databaseFileSize = databaseFileChannel.size();
+        mappedDatabaseFile = mapDatabaseFile(databaseFileSize);
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Copies bytes from the mapped database file, starting at
+     * {@code position}, until the {@code buffer} is full or the end of the
+     * file is reached.
+     *
+     * @param buffer   The buffer to read the bytes into.
+     * @param position The position in the database file to start reading at.
+     * @return The number of bytes read, which is less than the space that was
+     * remaining in the {@code buffer} when the end of the file is reached.
+     */
+    @Override
+    public int read(ByteBuffer buffer, long position) {
+
+        long endOfFile = databaseFileSize;
+        ByteBuffer mappedView = mappedDatabaseFile.duplicate();
+
+        if (position >= endOfFile) return 0;
+
+        mappedView.position((int) position);
+        mappedView.limit((int) Math.min(endOfFile,
+                position + buffer.remaining()));
+
+        int bytesRead = mappedView.remaining();
+        buffer.put(mappedView);
+
+        return bytesRead;
+    }
+
+    /**
+     * Writes all the remaining bytes in the {@code buffer} into the mapped
+     * database file, starting at {@code position}. The file is remapped first
+     * if the bytes go past the end of the mapping.
+     *
+     * @param buffer   The buffer containing the bytes to write.
+     * @param position The position in the database file to start writing at.
+     * @throws IOException If there is a problem growing the database file.
+     */
+    @Override
+    public void write(ByteBuffer buffer, long position) throws IOException {
+
+        long endPosition = position + buffer.remaining();
+        MappedByteBuffer mapping = mappedDatabaseFile;
+
+        if (endPosition > mapping.capacity()) {
+            mapping = growDatabaseFile(endPosition);
+        }
+
+        ByteBuffer mappedView = mapping.duplicate();
+        mappedView.position((int) position);
+        mappedView.put(buffer);
+
+        if (endPosition > databaseFileSize) {
+            extendDatabaseFileSize(endPosition);
+        }
+    }
+
+    /**
+     * Gets the current size of the database file, which is the end of the
+     * last record written, not the end of the mapping.
+     *
+     * @return The size of the database file in bytes.
+     */
+    @Override
+    public long size() {
+        return databaseFileSize;
+    }
+
+    /**
+     * Flushes the mapping to the disk, cuts the spare records off the end of
+     * the database file and closes it.
+     */
+    @Override
+    public void close() {
+        try {
+            mappedDatabaseFile.force();
+            databaseFileChannel.truncate(databaseFileSize);
+            databaseFileChannel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing Database File.");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Cuts the database file down to {@code size} bytes, and maps it again, so
+     * the mapping does not go past the end of the file.
+     *
+     * @param size The new size of the database file in bytes.
+     * @throws IOException If there is a problem cutting or mapping the
+     *                     database file.
+     */
+    @Override
+    synchronized void truncate(long size) throws IOException {
+
+        databaseFileChannel.truncate(size);
+        mappedDatabaseFile = mapDatabaseFile(size);
+        databaseFileSize = size;
+    }
+
+    // ---------- Private Methods ----------
+    private synchronized MappedByteBuffer growDatabaseFile(long endPosition)
+            throws IOException {
+
+        MappedByteBuffer mapping = mappedDatabaseFile;
+
+        // Another writer may have already grown the file while we waited.
+        if (endPosition <= mapping.capacity()) return mapping;
+
+        if (endPosition > Integer.MAX_VALUE) {
+            throw new IOException("The database file is too large to map.");
+        }
+
+        int oldCapacity = mapping.capacity();
+        long spareRecords = Math.max(Math.max(oldCapacity,
+                MINIMUM_GROWTH_BYTES) / DatabaseFileSchema.RECORD_LENGTH, 1);
+        spareRecords = Math.min(spareRecords,
+                (Integer.MAX_VALUE - endPosition)
+                        / DatabaseFileSchema.RECORD_LENGTH);
+        long newCapacity =
+                endPosition + spareRecords * DatabaseFileSchema.RECORD_LENGTH;
+
+        mapping = mapDatabaseFile(newCapacity);
+
+        // The new part of the file is zeros, which would read as valid
+        // records, so each record in it is flagged as deleted until written.
+        for (long recordPosition = oldCapacity;
+             recordPosition + DatabaseFileSchema.RECORD_LENGTH <= newCapacity;
+             recordPosition += DatabaseFileSchema.RECORD_LENGTH) {
+            mapping.put((int) recordPosition,
+                    DatabaseFileSchema.INVALID_RECORD_FLAG);
+        }
+
+        mappedDatabaseFile = mapping;
+
+        return mapping;
+    }
+
+    private synchronized void extendDatabaseFileSize(long endPosition) {
+
+        if (endPosition > databaseFileSize) {
+            databaseFileSize = endPosition;
+        }
+    }
+
+    private MappedByteBuffer mapDatabaseFile(long size) throws IOException {
+
+        // An interrupt would close the channel, and no more mappings could
+        // be made, so it is held back until the file is mapped.
+        boolean interrupted = Thread.interrupted();
+
+        try {
+            // Mapping past the end of the file extends the file to that size.
+            return databaseFileChannel.map(
+                    FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package suncertify.db;
+
+import suncertify.utilities.UrlyBirdApplicationConstants;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Reads the records of the database file in one sequential pass. The records
+ * are read in large blocks, and the fields of the current record are examined
+ * directly in the raw bytes of the block, so a full pass over the database
+ * costs one sequential read of the file.
+ * <p/>
+ * No record locks are taken, a record that is being written while it is
+ * scanned may be seen either before or after the write.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseFileScanner {
+
+    /**
+     * The number of whole records read from the database file at a time.
+     */
+    static final int RECORDS_PER_BLOCK =
+            (64 * 1024) / DatabaseFileSchema.RECORD_LENGTH;
+    private static final Charset FILE_CHARSET =
+            Charset.forName(UrlyBirdApplicationConstants.FILE_ENCODING);
+
+    private final ByteBuffer block = ByteBuffer.allocate(
+            RECORDS_PER_BLOCK * DatabaseFileSchema.RECORD_LENGTH);
+    private final int[] fieldOffsets;
+    private final long headerOffset, numberOfRecords;
+
+    private long recordNumber = -1;
+    private long firstRecordNumberInBlock;
+    private int recordsInBlock;
+
+    /**
+     * The constructor for the {@code DatabaseFileScanner} class. The scanner
+     * is positioned before the first record in the database.
+     */
+    DatabaseFileScanner() {
+
+        DatabaseFileUtils databaseFileUtils = DatabaseFileUtils.getInstance();
+
+        headerOffset = databaseFileUtils.getHeaderOffset();
+        numberOfRecords = databaseFileUtils.getNumberOfRecordsInDatabase();
+        fieldOffsets = new int[databaseFileUtils.getNumberOfFields()];
+
+        int fieldOffset = DatabaseFileSchema.BYTES_RECORD_FLAG;
+        for (int i = 0; i < fieldOffsets.length; i++) {
+            fieldOffsets[i] = fieldOffset;
+            fieldOffset += DatabaseFileSchema.databaseFieldLengths.get(i);
+        }
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Moves the scanner onto the next record in the database, reading the
+     * next block of records from the database file when it is needed.
+     *
+     * @return True, if the scanner is on a record.
+     * False, if there are no more records in the database.
+     * @throws IOException If there is a problem reading the database file.
+     */
+    public boolean nextRecord() throws IOException {
+
+        recordNumber++;
+
+        if (recordNumber >= numberOfRecords) return false;
+
+        if (recordNumber >= firstRecordNumberInBlock + recordsInBlock) {
+            readBlock();
+        }
+
+        return recordNumber < firstRecordNumberInBlock + recordsInBlock;
+    }
+
+    /**
+     * Gets the record number of the current record.
+     *
+     * @return The record number of the current record.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Checks the flag of the current record.
+     *
+     * @return True, if the current record is valid.
+     * False, if the current record has been deleted.
+     */
+    public boolean isValidRecord() {
+        return block.get(recordOffsetInBlock())
+                != DatabaseFileSchema.INVALID_RECORD_FLAG;
+    }
+
+    /**
+     * Checks, ignoring the case of ASCII letters, if a field of the current
+     * record starts with {@code lowerCasePrefix}.
+     *
+     * @param fieldIndex      The index of the field to examine.
+     * @param lowerCasePrefix The lower case ASCII bytes to match against.
+     * @return True, if the field starts with the prefix.
+     * False, if the field does not start with the prefix.
+     */
+    public boolean fieldStartsWith(int fieldIndex, byte[] lowerCasePrefix) {
+
+        if (lowerCasePrefix.length
+                > DatabaseFileSchema.databaseFieldLengths.get(fieldIndex)) {
+            return false;
+        }
+
+        int fieldOffset = recordOffsetInBlock() + fieldOffsets[fieldIndex];
+
+        for (int i = 0; i < lowerCasePrefix.length; i++) {
+            if (toLowerCase(block.get(fieldOffset + i))
+                    != lowerCasePrefix[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reads a field of the current record, including its padding.
+     *
+     * @param fieldIndex The index of the field to read.
+     * @return The value of the field.
+     */
+    public String readField(int fieldIndex) {
+
+        return new String(block.array(),
+                recordOffsetInBlock() + fieldOffsets[fieldIndex],
+                DatabaseFileSchema.databaseFieldLengths.get(fieldIndex),
+                FILE_CHARSET);
+    }
+
+    /**
+     * Copies the current record, including its flag, into the {@code buffer}.
+     *
+     * @param buffer The buffer to copy the record into.
+     */
+    public void copyRecord(ByteBuffer buffer) {
+        buffer.put(block.array(), recordOffsetInBlock(),
+                DatabaseFileSchema.RECORD_LENGTH);
+    }
+
+    /**
+     * Converts an ASCII letter to lower case. Any other byte is unchanged.
+     *
+     * @param asciiByte The byte to convert.
+     * @return The lower case of the byte.
+     */
+    static byte toLowerCase(byte asciiByte) {
+
+        return (asciiByte >= 'A' && asciiByte <= 'Z')
+                ? (byte) (asciiByte + ('a' - 'A'))
+                : asciiByte;
+    }
+
+    // ---------- Private Methods ----------
+    private void readBlock() throws IOException {
+
+        block.clear();
+        int recordsToRead = (int) Math.min(RECORDS_PER_BLOCK,
+                numberOfRecords - recordNumber);
+        block.limit(recordsToRead * DatabaseFileSchema.RECORD_LENGTH);
+
+        firstRecordNumberInBlock = recordNumber;
+        recordsInBlock = DatabaseFileStorage.getInstance().read(block,
+                headerOffset
+                        + (DatabaseFileSchema.RECORD_LENGTH * recordNumber))
+                / DatabaseFileSchema.RECORD_LENGTH;
+    }
+
+    private int recordOffsetInBlock() {
+        return (int) (recordNumber - firstRecordNumberInBlock)
+                * DatabaseFileSchema.RECORD_LENGTH;
+    }
+}
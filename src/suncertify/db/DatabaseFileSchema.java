@@ -110,6 +110,26 @@ class DatabaseFileSchema {
      * by entering the customer id against the room reservation.
      */
     private static final int FIELD_LENGTH_OWNER = 8;
+    /**
+     * The position of the room size field in a record.
+     */
+    public static final int SIZE_FIELD_INDEX = 2;
+    /**
+     * The position of the smoking field in a record.
+     */
+    public static final int SMOKING_FIELD_INDEX = 3;
+    /**
+     * The position of the rate field in a record.
+     */
+    public static final int RATE_FIELD_INDEX = 4;
+    /**
+     * The position of the date field in a record.
+     */
+    public static final int DATE_FIELD_INDEX = 5;
+    /**
+     * The position of the owner field in a record.
+     */
+    public static final int OWNER_FIELD_INDEX = 6;
     /**
      * The length of the record.
      */
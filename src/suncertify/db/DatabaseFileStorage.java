@@ -0,0 +1,228 @@
+package suncertify.db;
+
+import suncertify.utilities.UrlyBirdApplicationConstants;
+import suncertify.utilities.UrlyBirdApplicationObjectsFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The long lived handle to the database file. All the record I/O in the
+ * {@code suncertify.db} package goes through the single instance of this
+ * class, so the database file is opened once, rather than once per operation.
+ * <p/>
+ * The reads and writes are positional, they do not move a shared file pointer,
+ * so concurrent readers and writers never interfere with each other's seeks.
+ * <p/>
+ * The implementation is chosen by the optional {@code databaseStorageMode} key
+ * in the {@code suncertify.properties} file. The value {@code mapped} selects
+ * the {@link DatabaseFileMappedStorage}, anything else, or no value, selects
+ * the {@link DatabaseFileChannelStorage}. If the database file can not be
+ * mapped, the {@link DatabaseFileChannelStorage} is used instead.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+abstract class DatabaseFileStorage {
+
+    // Singleton instance of this {@code DatabaseFileStorage} class.
+    private static volatile DatabaseFileStorage databaseFileStorage;
+
+    /**
+     * This method returns the single instance of the
+     * {@code DatabaseFileStorage} class, creating the implementation selected
+     * in the {@code suncertify.properties} file the first time it is called.
+     *
+     * @return the instance to the calling class
+     */
+    public static DatabaseFileStorage getInstance() {
+
+        // Every read and write gets the instance, so once it is built it is
+        // got without taking the class's lock.
+        DatabaseFileStorage instance = databaseFileStorage;
+
+        if (instance == null) {
+            synchronized (DatabaseFileStorage.class) {
+
+                if (databaseFileStorage == null) {
+                    databaseFileStorage = openDatabaseFileStorage();
+                }
+                instance = databaseFileStorage;
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Replaces the database file with a compacted copy of it. The copy is
+     * renamed over the database file, so the file is swapped in one atomic
+     * step, then the single instance is replaced by one on the new file and
+     * the old file is closed.
+     *
+     * @param compactedDatabaseFile The compacted copy of the database file, in
+     *                              the same directory as the database file.
+     * @param databaseFile          The database file to replace.
+     * @throws IOException If the compacted copy can not be renamed over the
+     *                     database file.
+     */
+    static synchronized void replaceDatabaseFile(Path compactedDatabaseFile,
+                                                 Path databaseFile)
+            throws IOException {
+
+        Files.move(compactedDatabaseFile, databaseFile,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        DatabaseFileStorage replacedDatabaseFileStorage = databaseFileStorage;
+        databaseFileStorage = openDatabaseFileStorage();
+
+        if (replacedDatabaseFileStorage != null) {
+            replacedDatabaseFileStorage.close();
+        }
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Reads bytes from the database file, starting at {@code position}, until
+     * the {@code buffer} is full or the end of the file is reached.
+     *
+     * @param buffer   The buffer to read the bytes into.
+     * @param position The position in the database file to start reading at.
+     * @return The number of bytes read, which is less than the space that was
+     * remaining in the {@code buffer} when the end of the file is reached.
+     * @throws IOException If there is a problem reading the database file.
+     */
+    public abstract int read(ByteBuffer buffer, long position)
+            throws IOException;
+
+    /**
+     * Writes all the remaining bytes in the {@code buffer} to the database
+     * file, starting at {@code position}. Writing past the end of the file
+     * makes the file grow.
+     *
+     * @param buffer   The buffer containing the bytes to write.
+     * @param position The position in the database file to start writing at.
+     * @throws IOException If there is a problem writing the database file.
+     */
+    public abstract void write(ByteBuffer buffer, long position)
+            throws IOException;
+
+    /**
+     * Gets the current size of the database file.
+     *
+     * @return The size of the database file in bytes.
+     * @throws IOException If there is a problem reading the database file.
+     */
+    public abstract long size() throws IOException;
+
+    /**
+     * Closes the database file.
+     */
+    public abstract void close();
+
+    /**
+     * Cuts the spare records, that a {@link DatabaseFileMappedStorage} grew
+     * the database file by and did not use, off the end of the file. They are
+     * only cut off when the mapped file is closed, so a file that was not
+     * closed, because the application stopped, still has them. A spare record
+     * is flagged as deleted and all its fields are zeros, so they are found by
+     * reading back from the end of the file. It is done when the database
+     * file is opened, before the records are counted.
+     *
+     * @param headerOffset The position in the database file of the first
+     *                     record.
+     * @throws IOException If there is a problem reading or cutting the
+     *                     database file.
+     */
+    void cutSpareRecords(long headerOffset) throws IOException {
+
+        long databaseFileSize = size();
+        long endOfRecords = databaseFileSize;
+        ByteBuffer record =
+                ByteBuffer.allocate(DatabaseFileSchema.RECORD_LENGTH);
+
+        while (endOfRecords - DatabaseFileSchema.RECORD_LENGTH
+                >= headerOffset) {
+
+            record.clear();
+            read(record, endOfRecords - DatabaseFileSchema.RECORD_LENGTH);
+            if (!isSpareRecord(record)) break;
+
+            endOfRecords -= DatabaseFileSchema.RECORD_LENGTH;
+        }
+
+        if (endOfRecords < databaseFileSize) {
+            truncate(endOfRecords);
+        }
+    }
+
+    /**
+     * Cuts the database file down to {@code size} bytes. It is only called
+     * when the database file is opened, before any record is read or written.
+     *
+     * @param size The new size of the database file in bytes.
+     * @throws IOException If there is a problem cutting the database file.
+     */
+    abstract void truncate(long size) throws IOException;
+
+    // ---------- Private Methods ----------
+    private static boolean isSpareRecord(ByteBuffer record) {
+
+        if (record.position() < DatabaseFileSchema.RECORD_LENGTH
+                || record.get(0) != DatabaseFileSchema.INVALID_RECORD_FLAG) {
+            return false;
+        }
+
+        for (int i = DatabaseFileSchema.BYTES_RECORD_FLAG;
+             i < DatabaseFileSchema.RECORD_LENGTH; i++) {
+            if (record.get(i) != 0) return false;
+        }
+
+        return true;
+    }
+
+    private static DatabaseFileStorage openDatabaseFileStorage() {
+
+        // An interrupt would close the new channel, so it is held back until
+        // the database file is opened.
+        boolean interrupted = Thread.interrupted();
+
+        try {
+            return openDatabaseFileStorageUninterrupted();
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private static DatabaseFileStorage openDatabaseFileStorageUninterrupted() {
+
+        FileChannel databaseFileChannel = UrlyBirdApplicationObjectsFactory
+                .getDatabaseRandomAccessFile()
+                .getChannel();
+
+        String databaseStorageMode = UrlyBirdApplicationObjectsFactory
+                .getUrlyBirdApplicationProperties()
+                .getProperty(UrlyBirdApplicationConstants
+                                .PROPERTY_FILE_KEY_DATABASE_STORAGE_MODE,
+                        UrlyBirdApplicationConstants
+                                .DATABASE_STORAGE_MODE_CHANNEL);
+
+        if (UrlyBirdApplicationConstants.DATABASE_STORAGE_MODE_MAPPED
+                .equalsIgnoreCase(databaseStorageMode)) {
+            try {
+                return new DatabaseFileMappedStorage(databaseFileChannel);
+            } catch (IOException e) {
+                System.out.println("Error mapping the database file, it will"
+                        + " be read through its channel instead.");
+                e.printStackTrace();
+            }
+        }
+
+        return new DatabaseFileChannelStorage(databaseFileChannel);
+    }
+}
@@ -5,22 +5,30 @@ import suncertify.utilities.UrlyBirdApplicationObjectsFactory;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The utilities for the database file. This is a singleton. It offers
  * information on the database file, such as number of records in the database
  * file.
+ * <p/>
+ * The number of records is worked out from the length of the database file
+ * when it is opened, after any spare records left by a mapped database file
+ * are cut off, and is then kept in memory. Only creating a record at
+ * the end of the file, and compacting the file, change it.
  *
  * @author Luke GJ Potter
  * @since 31/03/2014
  */
 public class DatabaseFileUtils {
 
-    private static DatabaseFileUtils databaseFileUtils;
+    private static volatile DatabaseFileUtils databaseFileUtils;
     private final RandomAccessFile databaseRandomAccessFile;
 
+    private final AtomicLong numberOfRecordsInDatabase = new AtomicLong();
+
     private int magicCookie, recordLength, numberOfFields;
-    private long numberOfRecordsInDatabase, headerOffset;
+    private long headerOffset;
 
     private DatabaseFileUtils() {
 
@@ -30,6 +38,7 @@ public class DatabaseFileUtils {
         readHeaderValues();
         readColumnsHeaders();
         calculateHeaderOffset();
+        cutSpareRecords();
         updateNumberOfRecordsInDatabase();
     }
 
@@ -40,11 +49,23 @@ public class DatabaseFileUtils {
      */
     public static DatabaseFileUtils getInstance() {
 
-        if (databaseFileUtils == null) {
-            databaseFileUtils = new DatabaseFileUtils();
+        // Every read and write gets the instance, so once it is built it is
+        // got without taking the class's lock. Only one instance is built, so
+        // there is one count of the records, and the field names and lengths
+        // are only read from the header once.
+        DatabaseFileUtils instance = databaseFileUtils;
+
+        if (instance == null) {
+            synchronized (DatabaseFileUtils.class) {
+
+                if (databaseFileUtils == null) {
+                    databaseFileUtils = new DatabaseFileUtils();
+                }
+                instance = databaseFileUtils;
+            }
         }
 
-        return databaseFileUtils;
+        return instance;
     }
 
     // ---------- Getters and Setters ----------
@@ -95,11 +116,11 @@ public class DatabaseFileUtils {
      * records.
      */
     public long getNumberOfRecordsInDatabase() {
-        return numberOfRecordsInDatabase;
+        return numberOfRecordsInDatabase.get();
     }
 
     private void setNumberOfRecordsInDatabase(long numberOfRecordsInDatabase) {
-        this.numberOfRecordsInDatabase = numberOfRecordsInDatabase;
+        this.numberOfRecordsInDatabase.set(numberOfRecordsInDatabase);
     }
 
     /**
@@ -120,15 +141,17 @@ public class DatabaseFileUtils {
     // ---------- Public Methods ----------
 
     /**
-     * Get the current number of records in the database including deleted
-     * records.
+     * Works out the number of records in the database, including deleted
+     * records, from the length of the database file. This is done when the
+     * database file is opened, and after it is compacted.
      */
-    public synchronized void updateNumberOfRecordsInDatabase() {
+    public void updateNumberOfRecordsInDatabase() {
 
         try {
             setNumberOfRecordsInDatabase(
-                    (databaseRandomAccessFile.length() - getHeaderOffset())
-                            / getRecordLength());
+                    (DatabaseFileStorage.getInstance().size()
+                            - getHeaderOffset())
+                            / DatabaseFileSchema.RECORD_LENGTH);
         } catch (IOException e) {
             System.out.println(
                     "Error getting the length of the database file.");
@@ -136,6 +159,13 @@ public class DatabaseFileUtils {
         }
     }
 
+    /**
+     * Counts a record that has been written at the end of the database file.
+     */
+    void incrementNumberOfRecordsInDatabase() {
+        numberOfRecordsInDatabase.incrementAndGet();
+    }
+
     /**
      * A helper method to close the {@code databaseRandomAccessFile}.
      */
@@ -214,6 +244,19 @@ public class DatabaseFileUtils {
         }
     }
 
+    private void cutSpareRecords() {
+
+        try {
+            DatabaseFileStorage.getInstance().cutSpareRecords(
+                    getHeaderOffset());
+
+        } catch (IOException e) {
+            System.out.println(
+                    "Error cutting the spare records off the database file.");
+            e.printStackTrace();
+        }
+    }
+
     private void calculateHeaderOffset() {
 
         try {
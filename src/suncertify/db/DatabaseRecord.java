@@ -0,0 +1,296 @@
+package suncertify.db;
+
+import suncertify.utilities.UrlyBirdApplicationConstants;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.charset.Charset;
+
+/**
+ * A record read from the database, with its record number, so that the
+ * records that match a search can be sent to a client in one response. The
+ * fields are trimmed of the padding they have in the database file.
+ * <p/>
+ * A record is sent over RMI in a compact form. Numbers and lengths are
+ * written as variable length integers, seven bits to a byte, and strings as
+ * their UTF-8 bytes. The room size, the rate in cents and the date as
+ * {@code yyyymmdd} are written as numbers, and the smoking flag as a boolean.
+ * But only when that gives back exactly the same field, otherwise the field
+ * is written as a string. So any record is sent without change.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+public class DatabaseRecord implements Externalizable {
+
+    private static final Charset WIRE_CHARSET = Charset.forName("UTF-8");
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private static final int CENTS_PER_UNIT = 100;
+    private static final char DECIMAL_POINT = '.';
+    private static final char DATE_SEPARATOR = '/';
+
+    private long recordNumber;
+    private String[] fields;
+
+    /**
+     * The constructor used when a record is read from its compact form.
+     */
+    public DatabaseRecord() {
+    }
+
+    /**
+     * Constructor for the {@code DatabaseRecord}.
+     *
+     * @param recordNumber The record number of the record in the database.
+     * @param fields       The string array representation of the record, as
+     *                     it is read from the database file.
+     */
+    public DatabaseRecord(long recordNumber, String[] fields) {
+
+        this.recordNumber = recordNumber;
+        this.fields = new String[fields.length];
+
+        for (int i = 0; i < fields.length; i++) {
+            this.fields[i] = fields[i] == null ? null : fields[i].trim();
+        }
+    }
+
+    // ---------- Getters ----------
+
+    /**
+     * Gets the record number of the record in the database.
+     *
+     * @return The record number.
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Gets the fields of the record, without their padding.
+     *
+     * @return A String array representation of the database record.
+     */
+    public String[] getFields() {
+        return fields;
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Writes the record in its compact form. A bit for each field says
+     * whether the field is written as a number, or as a string.
+     *
+     * @param out The stream to write the record to.
+     * @throws IOException If there is a problem writing to the stream.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+
+        writeVarLong(out, recordNumber);
+        writeVarLong(out, fields.length);
+
+        long[] numbers = new long[fields.length];
+        long numericFields = 0;
+
+        for (int i = 0; i < fields.length; i++) {
+
+            Long number = toNumber(i, fields[i]);
+            if (number != null && i < Long.SIZE) {
+                numbers[i] = number;
+                numericFields |= 1L << i;
+            }
+        }
+
+        writeVarLong(out, numericFields);
+
+        for (int i = 0; i < fields.length; i++) {
+
+            if (!isNumericField(numericFields, i)) {
+                writeString(out, fields[i]);
+            } else if (i == DatabaseFileSchema.SMOKING_FIELD_INDEX) {
+                out.writeBoolean(numbers[i] != 0);
+            } else {
+                writeVarLong(out, numbers[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the record from its compact form.
+     *
+     * @param in The stream to read the record from.
+     * @throws IOException If there is a problem reading from the stream.
+     */
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+
+        recordNumber = readVarLong(in);
+        fields = new String[(int) readVarLong(in)];
+        long numericFields = readVarLong(in);
+
+        for (int i = 0; i < fields.length; i++) {
+
+            if (!isNumericField(numericFields, i)) {
+                fields[i] = readString(in);
+            } else if (i == DatabaseFileSchema.SMOKING_FIELD_INDEX) {
+                fields[i] = fromNumber(i, in.readBoolean() ? 1 : 0);
+            } else {
+                fields[i] = fromNumber(i, readVarLong(in));
+            }
+        }
+    }
+
+    // ---------- Private Methods ----------
+    private static boolean isNumericField(long numericFields, int fieldIndex) {
+        return fieldIndex < Long.SIZE
+                && (numericFields & (1L << fieldIndex)) != 0;
+    }
+
+    /**
+     * Converts a field to the number it is written as, if it has one.
+     *
+     * @param fieldIndex The position of the field in the record.
+     * @param field      The field.
+     * @return The number, that converts back to exactly the same field. Or
+     * NULL if the field is written as a string.
+     */
+    private static Long toNumber(int fieldIndex, String field) {
+
+        if (field == null || field.isEmpty()) return null;
+
+        Long number;
+
+        try {
+            number = parseNumber(fieldIndex, field);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return null;
+        }
+
+        return number != null && number >= 0
+                && field.equals(fromNumber(fieldIndex, number))
+                ? number
+                : null;
+    }
+
+    private static Long parseNumber(int fieldIndex, String field) {
+
+        switch (fieldIndex) {
+
+            case DatabaseFileSchema.SIZE_FIELD_INDEX:
+                return Long.parseLong(field);
+
+            case DatabaseFileSchema.SMOKING_FIELD_INDEX:
+                return field.equals(UrlyBirdApplicationConstants
+                        .SMOKING_ALLOWED) ? 1L : 0L;
+
+            case DatabaseFileSchema.RATE_FIELD_INDEX:
+                int decimalPoint = field.indexOf(DECIMAL_POINT);
+                return Long.parseLong(field.substring(
+                        UrlyBirdApplicationConstants.CURRENCY_PREFIX.length(),
+                        decimalPoint)) * CENTS_PER_UNIT
+                        + Long.parseLong(field.substring(decimalPoint + 1));
+
+            case DatabaseFileSchema.DATE_FIELD_INDEX:
+                return Long.parseLong(field.substring(0, 4)) * 10000
+                        + Long.parseLong(field.substring(5, 7)) * 100
+                        + Long.parseLong(field.substring(8));
+
+            default:
+                return null;
+        }
+    }
+
+    private static String fromNumber(int fieldIndex, long number) {
+
+        switch (fieldIndex) {
+
+            case DatabaseFileSchema.SMOKING_FIELD_INDEX:
+                return number != 0
+                        ? UrlyBirdApplicationConstants.SMOKING_ALLOWED
+                        : UrlyBirdApplicationConstants.SMOKING_NOT_ALLOWED;
+
+            case DatabaseFileSchema.RATE_FIELD_INDEX:
+                return UrlyBirdApplicationConstants.CURRENCY_PREFIX
+                        + (number / CENTS_PER_UNIT) + DECIMAL_POINT
+                        + padded(number % CENTS_PER_UNIT, 2);
+
+            case DatabaseFileSchema.DATE_FIELD_INDEX:
+                return padded(number / 10000, 4) + DATE_SEPARATOR
+                        + padded(number / 100 % 100, 2) + DATE_SEPARATOR
+                        + padded(number % 100, 2);
+
+            default:
+                return String.valueOf(number);
+        }
+    }
+
+    private static String padded(long number, int digits) {
+
+        StringBuilder paddedNumber = new StringBuilder(digits);
+        String unpaddedNumber = String.valueOf(number);
+
+        for (int i = unpaddedNumber.length(); i < digits; i++) {
+            paddedNumber.append('0');
+        }
+
+        return paddedNumber.append(unpaddedNumber).toString();
+    }
+
+    private static void writeString(ObjectOutput out, String string)
+            throws IOException {
+
+        // A null field is written with a length of zero, an empty field with
+        // a length of one.
+        if (string == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(WIRE_CHARSET);
+        writeVarLong(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static String readString(ObjectInput in) throws IOException {
+
+        int length = (int) readVarLong(in);
+        if (length == 0) return null;
+
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+
+        return new String(bytes, WIRE_CHARSET);
+    }
+
+    private static void writeVarLong(ObjectOutput out, long value)
+            throws IOException {
+
+        while ((value & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.writeByte((int) (value & VARINT_PAYLOAD_MASK)
+                    | VARINT_CONTINUATION_BIT);
+            value >>>= VARINT_PAYLOAD_BITS;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ObjectInput in) throws IOException {
+
+        long value = 0;
+        int shift = 0;
+        int b;
+
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_PAYLOAD_BITS;
+        } while ((b & VARINT_CONTINUATION_BIT) != 0);
+
+        return value;
+    }
+}
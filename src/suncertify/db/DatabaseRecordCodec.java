@@ -0,0 +1,203 @@
+package suncertify.db;
+
+import suncertify.utilities.UrlyBirdApplicationConstants;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * This singleton class converts records between their string array
+ * representation and the bytes in the database file. The fields are encoded
+ * and decoded in place, at the offsets worked out from the database file's
+ * header, in a record buffer that each thread reuses. So the only objects
+ * created are the field strings of a decoded record.
+ * <p/>
+ * The database file is US-ASCII. When a record is encoded, a character that is
+ * not ASCII is written as {@code '?'}, a field that is too long is cut to the
+ * length of the field, and a field that is too short is padded with zero
+ * bytes.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseRecordCodec {
+
+    private static final Charset FILE_CHARSET =
+            Charset.forName(UrlyBirdApplicationConstants.FILE_ENCODING);
+    private static final byte UNMAPPABLE_CHARACTER = '?';
+
+    // Singleton instance of this {@code DatabaseRecordCodec} class.
+    private static volatile DatabaseRecordCodec databaseRecordCodec;
+
+    private final int[] fieldOffsets, fieldLengths;
+    // The buffer that each thread reads and writes its records through.
+    private final ThreadLocal<ByteBuffer> recordBuffers =
+            new ThreadLocal<ByteBuffer>() {
+                @Override
+                protected ByteBuffer initialValue() {
+                    return ByteBuffer.allocate(
+                            DatabaseFileSchema.RECORD_LENGTH);
+                }
+            };
+
+    /**
+     * Private constructor for the singleton. It works out the offset of each
+     * field in a record from the field lengths in the database file's header.
+     */
+    private DatabaseRecordCodec() {
+
+        int numberOfFields =
+                DatabaseFileUtils.getInstance().getNumberOfFields();
+        fieldOffsets = new int[numberOfFields];
+        fieldLengths = new int[numberOfFields];
+
+        int fieldOffset = DatabaseFileSchema.BYTES_RECORD_FLAG;
+        for (int i = 0; i < numberOfFields; i++) {
+            fieldOffsets[i] = fieldOffset;
+            fieldLengths[i] = DatabaseFileSchema.databaseFieldLengths.get(i);
+            fieldOffset += fieldLengths[i];
+        }
+    }
+
+    /**
+     * This method returns the single instance of the
+     * {@code DatabaseRecordCodec} class.
+     *
+     * @return the instance to the calling class
+     */
+    public static DatabaseRecordCodec getInstance() {
+
+        // Every read and write gets the instance, so once it is built it is
+        // got without taking the class's lock.
+        DatabaseRecordCodec instance = databaseRecordCodec;
+
+        if (instance == null) {
+            synchronized (DatabaseRecordCodec.class) {
+
+                if (databaseRecordCodec == null) {
+                    databaseRecordCodec = new DatabaseRecordCodec();
+                }
+                instance = databaseRecordCodec;
+            }
+        }
+
+        return instance;
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Gets the calling thread's record buffer, cleared, so that a record can
+     * be read into it. The buffer is reused by the next call on the thread.
+     *
+     * @return The record buffer of the calling thread.
+     */
+    public ByteBuffer getRecordBuffer() {
+
+        ByteBuffer recordBuffer = recordBuffers.get();
+        recordBuffer.clear();
+
+        return recordBuffer;
+    }
+
+    /**
+     * Checks the flag of the record in the {@code recordBuffer}.
+     *
+     * @param recordBuffer A buffer holding a record, from its flag.
+     * @return True, if the record is valid.
+     * False, if the record has been deleted.
+     */
+    public boolean isValidRecord(ByteBuffer recordBuffer) {
+        return recordBuffer.get(0) != DatabaseFileSchema.INVALID_RECORD_FLAG;
+    }
+
+    /**
+     * Decodes the fields of the record in the {@code recordBuffer}, including
+     * their padding.
+     *
+     * @param recordBuffer A buffer holding a record, from its flag.
+     * @return A String array representation of the database record.
+     */
+    public String[] decodeRecord(ByteBuffer recordBuffer) {
+
+        byte[] recordBytes = recordBuffer.array();
+        String[] fields = new String[fieldOffsets.length];
+
+        for (int i = 0; i < fieldOffsets.length; i++) {
+            fields[i] = new String(recordBytes, fieldOffsets[i],
+                    fieldLengths[i], FILE_CHARSET);
+        }
+
+        return fields;
+    }
+
+    /**
+     * Encodes a valid record into the calling thread's record buffer. A null
+     * or missing field is encoded as an empty field.
+     *
+     * @param data The string array representation of a database record.
+     * @return The record buffer of the calling thread, holding the record and
+     * ready to be written.
+     */
+    public ByteBuffer encodeRecord(String[] data) {
+
+        ByteBuffer recordBuffer = getRecordBuffer();
+        byte[] recordBytes = recordBuffer.array();
+        recordBytes[0] = DatabaseFileSchema.VALID_RECORD_FLAG;
+
+        for (int i = 0; i < fieldOffsets.length; i++) {
+            encodeField(recordBytes, i, i < data.length ? data[i] : null);
+        }
+
+        return recordBuffer;
+    }
+
+    /**
+     * Encodes the fields {@code firstField} to {@code lastField} of a record
+     * into the calling thread's record buffer, at their offsets in the
+     * record. A null or missing field is encoded as an empty field.
+     *
+     * @param data       The string array representation of a database record.
+     * @param firstField The index of the first field to encode.
+     * @param lastField  The index of the last field to encode.
+     * @return The record buffer of the calling thread, ready to write just the
+     * fields. Its position is the offset of the first field in the record.
+     */
+    public ByteBuffer encodeFields(String[] data, int firstField,
+                                   int lastField) {
+
+        ByteBuffer recordBuffer = getRecordBuffer();
+        byte[] recordBytes = recordBuffer.array();
+
+        for (int i = firstField; i <= lastField; i++) {
+            encodeField(recordBytes, i, i < data.length ? data[i] : null);
+        }
+
+        recordBuffer.limit(fieldOffsets[lastField] + fieldLengths[lastField]);
+        recordBuffer.position(fieldOffsets[firstField]);
+
+        return recordBuffer;
+    }
+
+    // ---------- Private Methods ----------
+    private void encodeField(byte[] recordBytes, int fieldIndex,
+                             String field) {
+
+        if (field == null) field = UrlyBirdApplicationConstants.EMPTY_STRING;
+        int fieldOffset = fieldOffsets[fieldIndex];
+        int charactersToEncode =
+                Math.min(field.length(), fieldLengths[fieldIndex]);
+
+        for (int j = 0; j < charactersToEncode; j++) {
+
+            char character = field.charAt(j);
+            recordBytes[fieldOffset + j] = character < 128
+                    ? (byte) character
+                    : UNMAPPABLE_CHARACTER;
+        }
+
+        Arrays.fill(recordBytes, fieldOffset + charactersToEncode,
+                fieldOffset + fieldLengths[fieldIndex], (byte) 0);
+    }
+}
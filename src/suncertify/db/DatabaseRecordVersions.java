@@ -0,0 +1,172 @@
+package suncertify.db;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This singleton class keeps the version of each record in memory, so that a
+ * client can update a record only if it has not changed since the client
+ * read it, without locking it.
+ * <p/>
+ * A version is an even number, and a new one is drawn from a counter each
+ * time a record is written, so no two states of any records share a version.
+ * While a record is being written its version is odd. The versions are not
+ * stored in the database file: when it is opened, and after it is compacted,
+ * every record starts with the same new version, and only the versions of the
+ * records written since are kept.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseRecordVersions {
+
+    // The last version drawn, for all the instances.
+    private static final AtomicLong lastVersion = new AtomicLong();
+
+    // Singleton instance of this {@code DatabaseRecordVersions} class.
+    private static volatile DatabaseRecordVersions databaseRecordVersions;
+
+    // The version of the records that have not been written since the
+    // database file was opened, or compacted.
+    private final long baseVersion = nextVersion();
+    // The version (value) of each record (key) written since then.
+    private final ConcurrentMap<Long, Long> versions =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor for the singleton.
+     */
+    private DatabaseRecordVersions() {
+    }
+
+    /**
+     * This method returns the single instance of the
+     * {@code DatabaseRecordVersions} class.
+     *
+     * @return the instance to the calling class
+     */
+    public static DatabaseRecordVersions getInstance() {
+
+        // Every lock and every write gets the instance, so once it is built
+        // it is got without taking the class's lock.
+        DatabaseRecordVersions instance = databaseRecordVersions;
+
+        if (instance == null) {
+            synchronized (DatabaseRecordVersions.class) {
+
+                if (databaseRecordVersions == null) {
+                    databaseRecordVersions = new DatabaseRecordVersions();
+                }
+                instance = databaseRecordVersions;
+            }
+        }
+
+        return instance;
+    }
+
+    /**
+     * Replaces the single instance with a new one, so every record gets a
+     * new version. This is used after the database file is compacted, when
+     * the record numbers have changed.
+     */
+    static synchronized void rebuildVersions() {
+        databaseRecordVersions = new DatabaseRecordVersions();
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Gets the version of a record. If the record is being written, this
+     * waits until the write is finished.
+     *
+     * @param recordNumber The record number of the record.
+     * @return The version of the record.
+     */
+    public long getVersion(long recordNumber) {
+
+        long version;
+
+        while (isBeingWritten(version = currentVersion(recordNumber))) {
+            Thread.yield();
+        }
+
+        return version;
+    }
+
+    /**
+     * Marks the start of a write of a record, if the record still has the
+     * {@code expectedVersion}. Until the write is finished, the record's
+     * version is odd, so no other write can be started.
+     *
+     * @param recordNumber    The record number of the record.
+     * @param expectedVersion The version the record must have.
+     * @return True, if the write can go ahead.
+     * False, if the record has another version, or is being written.
+     */
+    public boolean startWriting(long recordNumber, long expectedVersion) {
+
+        if (isBeingWritten(expectedVersion)) return false;
+
+        Long version = versions.get(recordNumber);
+
+        if (version == null) {
+            return expectedVersion == baseVersion
+                    && versions.putIfAbsent(
+                    recordNumber, expectedVersion + 1) == null;
+        }
+
+        return version == expectedVersion
+                && versions.replace(
+                recordNumber, expectedVersion, expectedVersion + 1);
+    }
+
+    /**
+     * Marks the start of a write of a record, whatever its version. If the
+     * record is being written, this waits until the write is finished.
+     *
+     * @param recordNumber The record number of the record.
+     */
+    public void startWriting(long recordNumber) {
+
+        while (!startWriting(recordNumber, getVersion(recordNumber))) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Marks the end of a write of a record, giving the record a new version.
+     *
+     * @param recordNumber The record number of the record.
+     */
+    public void finishWriting(long recordNumber) {
+        versions.put(recordNumber, nextVersion());
+    }
+
+    /**
+     * Marks the end of a write of a record that was not made, giving the
+     * record back the version it had.
+     *
+     * @param recordNumber    The record number of the record.
+     * @param previousVersion The version the record had.
+     */
+    public void abandonWriting(long recordNumber, long previousVersion) {
+        versions.put(recordNumber, previousVersion);
+    }
+
+    // ---------- Private Methods ----------
+    private long currentVersion(long recordNumber) {
+
+        Long version = versions.get(recordNumber);
+
+        return version == null ? baseVersion : version;
+    }
+
+    private static boolean isBeingWritten(long version) {
+        return (version & 1) != 0;
+    }
+
+    private static long nextVersion() {
+        return lastVersion.addAndGet(2);
+    }
+}
@@ -0,0 +1,27 @@
+package suncertify.db;
+
+/**
+ * Thrown when a record is not unlocked by another client within the time a
+ * client is willing to wait to lock it.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+public class RecordLockTimeoutException extends Exception {
+
+    /**
+     * Default Constructor.
+     */
+    public RecordLockTimeoutException() {
+    }
+
+    /**
+     * Constructor that accepts a parameter.
+     *
+     * @param message The message to be printed with the stack trace.
+     */
+    public RecordLockTimeoutException(String message) {
+
+        super(message);
+    }
+}
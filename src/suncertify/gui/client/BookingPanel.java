@@ -111,7 +111,7 @@ class BookingPanel extends JPanel {
                     if (areStartDateAndEndDateOfBookingSet()) {
 
                         databaseAccessDao.bookHotelRoom(recordRow, csrNumber,
-                                endDate, Thread.currentThread().getId());
+                                endDate);
                     }
                 } catch (Exception e) {
 
@@ -116,7 +116,33 @@ public class UrlyBirdServerGui extends JFrame {
                 startServerButton.setEnabled(false);
                 serverStatusLabel.setText(
                         UrlyBirdApplicationGuiConstants.SERVER_STARTED);
+                new Timer(UrlyBirdApplicationGuiConstants
+                        .SERVER_STATISTICS_REFRESH_MILLISECONDS,
+                        new RefreshLockStatistics()).start();
             }
         }
     }
+
+    /**
+     * The ActionListener for the Timer that refreshes the locking statistics
+     * shown in the status label, once the server is running.
+     */
+    private class RefreshLockStatistics implements ActionListener {
+
+        /**
+         * Shows the current locking statistics of the server.
+         *
+         * @param actionEvent The event performed.
+         */
+        @Override
+        public void actionPerformed(ActionEvent actionEvent) {
+
+            long[] lockStatistics = RmiServerManager.getLockStatistics();
+
+            serverStatusLabel.setText(String.format(
+                    UrlyBirdApplicationGuiConstants
+                            .SERVER_STARTED_WITH_LOCK_STATISTICS,
+                    lockStatistics[0], lockStatistics[1], lockStatistics[2]));
+        }
+    }
 }
@@ -2,6 +2,7 @@ package suncertify.rmi;
 
 import suncertify.db.Data;
 import suncertify.db.DuplicateKeyException;
+import suncertify.db.RecordLockTimeoutException;
 import suncertify.db.RecordNotFoundException;
 
 import java.rmi.RemoteException;
@@ -40,10 +41,66 @@ public class DatabaseAccessRemoteImpl extends UnicastRemoteObject
         return new Data().readRecord(recNo);
     }
 
+    /**
+     * Reads several records from the file in one call. Returns an array of
+     * records, in the order of {@code recNos}, where each element of a record
+     * is a record field. The records are read in the order they are in the
+     * file.
+     *
+     * @param recNos The record numbers in the database to retrieve.
+     * @return A String array representation of each database record. Or NULL
+     * in the place of a record that does not exist, or had been deleted.
+     * @throws RemoteException If there is a problem with the network.
+     */
+    @Override
+    public String[][] readRecords(long[] recNos) throws RemoteException {
+        return new Data().readRecords(recNos);
+    }
+
+    /**
+     * Finds the records that match the specified criteria, and reads them, in
+     * one call. The criteria are the same as for {@code findByCriteria}. A
+     * record that is deleted after it is found is left out. A lot of records
+     * are sent compressed.
+     *
+     * @param criteria The search criteria to match against.
+     * @return The records that match the {@code criteria}, with their record
+     * numbers, in ascending order of record number.
+     * @throws RemoteException If there is a problem with the network.
+     */
+    @Override
+    public DatabaseRecords findAndRead(String[] criteria)
+            throws RemoteException {
+        return new DatabaseRecords(new Data().findAndRead(criteria));
+    }
+
+    /**
+     * Reads the valid records, in the order they are in the file, starting at
+     * {@code firstRecordNumber}, in one call. The deleted records are skipped.
+     * To read all the records a page at a time, the next page starts after
+     * the record number of the last record of this page. A lot of records are
+     * sent compressed.
+     *
+     * @param firstRecordNumber The record number to start reading at.
+     * @param pageSize          The most records to read. Or zero, to read all
+     *                          the records from {@code firstRecordNumber}.
+     * @return The valid records, with their record numbers, in ascending
+     * order of record number. There are fewer than {@code pageSize} if the
+     * end of the file was reached.
+     * @throws RemoteException If there is a problem with the network.
+     */
+    @Override
+    public DatabaseRecords readAllRecords(long firstRecordNumber,
+                                          int pageSize)
+            throws RemoteException {
+        return new DatabaseRecords(
+                new Data().readAllRecords(firstRecordNumber, pageSize));
+    }
+
     /**
      * Modifies the fields of a record. The new value for field n appears in
-     * data[n]. Throws SecurityException if the record is locked with a cookie
-     * other than lockCookie.
+     * data[n]. Throws SecurityException if the record is not locked with
+     * lockCookie.
      *
      * @param recNo      The record number in the database to update.
      * @param data       The string array representation of a database record,
@@ -51,9 +108,10 @@ public class DatabaseAccessRemoteImpl extends UnicastRemoteObject
      * @param lockCookie The cookie that the row is locked with.
      * @throws RecordNotFoundException When locating a record that does not
      *                                 exist, or had been previously deleted.
-     * @throws SecurityException       If the record is locked by a user other
-     *                                 than the user trying to update the
-     *                                 record.
+     * @throws SecurityException       If the record is not locked with the
+     *                                 cookie, because it is locked by another
+     *                                 user, is not locked, or its lock has
+     *                                 expired.
      * @throws RemoteException         If there is a problem with the network.
      */
     @Override
@@ -62,19 +120,111 @@ public class DatabaseAccessRemoteImpl extends UnicastRemoteObject
         new Data().updateRecord(recNo, data, lockCookie);
     }
 
+    /**
+     * Modifies the fields of a record, like {@link #updateRecord}, but only if
+     * the record has not changed since the caller got its version, and is not
+     * locked by a client. The record is not locked for the update, so a
+     * booking takes a single call, and an update that conflicts with another
+     * one fails instead of waiting for it.
+     *
+     * @param recNo           The record number in the database to update.
+     * @param expectedVersion The version of the record, from
+     *                        {@link #getRecordVersion(long)}.
+     * @param data            The string array representation of a database
+     *                        record, containing the updates.
+     * @return True, if the record was updated.
+     * False, if the record has changed, or is locked, and was not updated.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     * @throws RemoteException         If there is a problem with the network.
+     */
+    @Override
+    public boolean updateIfVersion(long recNo, long expectedVersion,
+                                   String[] data)
+            throws RecordNotFoundException, RemoteException {
+        return new Data().updateIfVersion(recNo, expectedVersion, data);
+    }
+
+    /**
+     * Gets the version of a record, for
+     * {@link #updateIfVersion(long, long, String[])}. The version changes each
+     * time the record is written. It should be got before the record is read,
+     * so that a change made after it was read makes the update fail.
+     *
+     * @param recNo The record number in the database.
+     * @return The version of the record.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     * @throws RemoteException         If there is a problem with the network.
+     */
+    @Override
+    public long getRecordVersion(long recNo)
+            throws RecordNotFoundException, RemoteException {
+        return new Data().getRecordVersion(recNo);
+    }
+
+    /**
+     * Books a room, writing the owner and the date of a record, if the record
+     * has no owner. The record is locked on the server while it is checked
+     * and written, so two clients cannot both book it, and the booking takes
+     * a single call.
+     *
+     * @param recNo     The record number in the database to book.
+     * @param ownerName The customer id of the owner.
+     * @param date      The date of the booking.
+     * @return True, if the room was booked.
+     * False, if the room was already booked.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted.
+     * @throws RemoteException         If there is a problem with the network.
+     */
+    @Override
+    public boolean bookRoom(long recNo, String ownerName, String date)
+            throws RecordNotFoundException, RemoteException {
+        return new Data().bookRoom(recNo, ownerName, date);
+    }
+
+    /**
+     * Books a room, like {@link #bookRoom(long, String, String)}, if the
+     * record number was read in the current generation of record numbers, as
+     * given by {@link #getCompactionGeneration()} before it was read. A record
+     * number from before a compaction does not book whichever room now has
+     * that number.
+     *
+     * @param recNo                The record number in the database to book.
+     * @param ownerName            The customer id of the owner.
+     * @param date                 The date of the booking.
+     * @param compactionGeneration The generation the record number was read
+     *                             in.
+     * @return True, if the room was booked.
+     * False, if the room was already booked.
+     * @throws RecordNotFoundException When locating a record that does not
+     *                                 exist, or had been previously deleted,
+     *                                 or if the record number was read before
+     *                                 the last compaction.
+     * @throws RemoteException         If there is a problem with the network.
+     */
+    @Override
+    public boolean bookRoom(long recNo, String ownerName, String date,
+                            long compactionGeneration)
+            throws RecordNotFoundException, RemoteException {
+        return new Data().bookRoom(recNo, ownerName, date,
+                compactionGeneration);
+    }
+
     /**
      * Deletes a record, making the record number and associated disk storage
-     * unavailable for reuse by setting an "invalid" flag for the record. Throws
-     * SecurityException if the record is locked with a cookie other than
-     * lockCookie.
+     * available for reuse by setting an "invalid" flag for the record. Throws
+     * SecurityException if the record is not locked with lockCookie.
      *
      * @param recNo      The record number in the database to delete.
      * @param lockCookie The cookie that the row is locked with.
      * @throws RecordNotFoundException When locating a record that does not
      *                                 exist, or had been previously deleted.
-     * @throws SecurityException       If the record is locked by a user other
-     *                                 than the user trying to update the
-     *                                 record.
+     * @throws SecurityException       If the record is not locked with the
+     *                                 cookie, because it is locked by another
+     *                                 user, is not locked, or its lock has
+     *                                 expired.
      * @throws RemoteException         If there is a problem with the network.
      */
     @Override
@@ -102,8 +252,9 @@ public class DatabaseAccessRemoteImpl extends UnicastRemoteObject
     }
 
     /**
-     * Creates a new record in the database. Inserts the given data, and returns
-     * the record number of the new record.
+     * Creates a new record in the database, reusing the space of a deleted
+     * record when there is one. Inserts the given data, and returns the record
+     * number of the new record.
      *
      * @param data The string array representation of a database record.
      * @return The record number of the position that the record was created.
@@ -135,6 +286,104 @@ public class DatabaseAccessRemoteImpl extends UnicastRemoteObject
         return new Data().lockRecord(recNo);
     }
 
+    /**
+     * Locks a record, like {@link #lockRecord(long)}, but gives up if the
+     * record is not unlocked by a different client within
+     * {@code timeoutMilliseconds}, so the client can try another record.
+     *
+     * @param recNo               the record number to lock
+     * @param timeoutMilliseconds how long to wait for the record, a timeout of
+     *                            zero, or less, does not wait at all
+     * @return A long representing the lock's owner's id.
+     * @throws RecordNotFoundException    When locating a record that does not
+     *                                    exist, or had been previously deleted.
+     * @throws RecordLockTimeoutException If the record was not unlocked in
+     *                                    time.
+     * @throws RemoteException            If there is a problem with the
+     *                                    network.
+     */
+    @Override
+    public long lockRecord(long recNo, long timeoutMilliseconds)
+            throws RecordNotFoundException, RecordLockTimeoutException,
+            RemoteException {
+        return new Data().lockRecord(recNo, timeoutMilliseconds);
+    }
+
+    /**
+     * Locks a record, like {@link #lockRecord(long, long)}, if the record
+     * number was read in the current generation of record numbers, as given
+     * by {@link #getCompactionGeneration()} before it was read. Otherwise the
+     * record is not locked.
+     *
+     * @param recNo                the record number to lock
+     * @param timeoutMilliseconds  how long to wait for the record, a timeout
+     *                             of zero, or less, does not wait at all
+     * @param compactionGeneration the generation the record number was read
+     *                             in
+     * @return A long representing the lock's owner's id.
+     * @throws RecordNotFoundException    When locating a record that does not
+     *                                    exist, or had been previously
+     *                                    deleted, or if the record number was
+     *                                    read before the last compaction.
+     * @throws RecordLockTimeoutException If the record was not unlocked in
+     *                                    time.
+     * @throws RemoteException            If there is a problem with the
+     *                                    network.
+     */
+    @Override
+    public long lockRecord(long recNo, long timeoutMilliseconds,
+                           long compactionGeneration)
+            throws RecordNotFoundException, RecordLockTimeoutException,
+            RemoteException {
+        return new Data().lockRecord(recNo, timeoutMilliseconds,
+                compactionGeneration);
+    }
+
+    /**
+     * Locks a record, like {@link #lockRecord(long)}, if it is not locked by a
+     * different client. Otherwise it gives up at once.
+     *
+     * @param recNo the record number to lock
+     * @return A long representing the lock's owner's id.
+     * @throws RecordNotFoundException    When locating a record that does not
+     *                                    exist, or had been previously deleted.
+     * @throws RecordLockTimeoutException If the record is locked.
+     * @throws RemoteException            If there is a problem with the
+     *                                    network.
+     */
+    @Override
+    public long tryLockRecord(long recNo)
+            throws RecordNotFoundException, RecordLockTimeoutException,
+            RemoteException {
+        return new Data().tryLockRecord(recNo);
+    }
+
+    /**
+     * Locks several records, all or none of them, for example the rooms of a
+     * group booking. The records are locked in order of record number,
+     * whatever order they are given in, so two clients locking the same
+     * records cannot deadlock. If they are not all locked within
+     * {@code timeoutMilliseconds}, the ones that were locked are unlocked
+     * again. Each record must be unlocked with its own cookie.
+     *
+     * @param recNos              the record numbers to lock, each only once
+     * @param timeoutMilliseconds how long to wait for all the records, a
+     *                            timeout of zero, or less, does not wait at all
+     * @return The cookies of the locks, in the order of {@code recNos}.
+     * @throws RecordNotFoundException    When locating a record that does not
+     *                                    exist, or had been previously deleted.
+     * @throws RecordLockTimeoutException If the records were not all unlocked
+     *                                    in time.
+     * @throws RemoteException            If there is a problem with the
+     *                                    network.
+     */
+    @Override
+    public long[] lockRecords(long[] recNos, long timeoutMilliseconds)
+            throws RecordNotFoundException, RecordLockTimeoutException,
+            RemoteException {
+        return new Data().lockRecords(recNos, timeoutMilliseconds);
+    }
+
     /**
      * Releases the lock on a record. Cookie must be the cookie returned when
      * the record was locked; otherwise throws {@code SecurityException}.
@@ -150,4 +399,52 @@ public class DatabaseAccessRemoteImpl extends UnicastRemoteObject
             throws SecurityException, RemoteException {
         new Data().unlock(recNo, cookie);
     }
+
+    /**
+     * Renews the lease of a lock, so that it lasts another thirty seconds. A
+     * lock that is not renewed, or used to update or delete the record, expires
+     * thirty seconds after the record was locked, and the record is unlocked.
+     * Cookie must be the cookie returned when the record was locked; otherwise
+     * throws {@code SecurityException}.
+     *
+     * @param recNo  the record number whose lock to renew
+     * @param cookie the cookie the record is locked with
+     * @throws SecurityException If the record is not locked with the cookie,
+     *                           for example because the lock expired.
+     * @throws RemoteException   If there is a problem with the network.
+     */
+    @Override
+    public void renewLock(long recNo, long cookie)
+            throws SecurityException, RemoteException {
+        new Data().renewLock(recNo, cookie);
+    }
+
+    /**
+     * Gets the generation of the record numbers, which is the number of
+     * compactions of the database file since the server started. Each
+     * compaction renumbers the records, so a client that keeps record numbers
+     * gets the generation before it reads them, and gives it when it locks or
+     * books a record.
+     *
+     * @return The generation of the record numbers.
+     * @throws RemoteException If there is a problem with the network.
+     */
+    @Override
+    public long getCompactionGeneration() throws RemoteException {
+        return new Data().getCompactionGeneration();
+    }
+
+    /**
+     * Gets the record number mapping of the last compaction, so a record
+     * number that was read in the generation before it can be translated.
+     *
+     * @return The new record numbers, indexed by the old record numbers. The
+     * new record number of a deleted record is -1. The array is empty if the
+     * database file has not been compacted.
+     * @throws RemoteException If there is a problem with the network.
+     */
+    @Override
+    public long[] getNewRecordNumbers() throws RemoteException {
+        return new Data().getNewRecordNumbers();
+    }
 }
@@ -0,0 +1,179 @@
+package suncertify.rmi;
+
+import suncertify.db.DatabaseRecord;
+import suncertify.utilities.UrlyBirdApplicationConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The records that the RMI server sends back for a search, or for all the
+ * records. The records are written in their compact form, and if that comes
+ * to more than {@link UrlyBirdApplicationConstants#RMI_COMPRESSION_THRESHOLD}
+ * bytes they are compressed with a {@code Deflater}, as the hotel names and
+ * locations repeat a lot. A flag at the start says whether they were
+ * compressed, so the client reads either.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+public class DatabaseRecords implements Externalizable {
+
+    private DatabaseRecord[] records;
+
+    /**
+     * The constructor used when the records are read from the network.
+     */
+    public DatabaseRecords() {
+    }
+
+    /**
+     * Constructor for the {@code DatabaseRecords}.
+     *
+     * @param records The records to send.
+     */
+    public DatabaseRecords(DatabaseRecord[] records) {
+        this.records = records;
+    }
+
+    // ---------- Getters ----------
+
+    /**
+     * Gets the records.
+     *
+     * @return The records.
+     */
+    public DatabaseRecord[] getRecords() {
+        return records;
+    }
+
+    // ---------- Public Methods ----------
+
+    /**
+     * Writes the records, compressed if they come to more than the
+     * threshold.
+     *
+     * @param out The stream to write the records to.
+     * @throws IOException If there is a problem writing to the stream.
+     */
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+
+        byte[] recordBytes = recordsAsBytes();
+        boolean compressed = recordBytes.length
+                > UrlyBirdApplicationConstants.RMI_COMPRESSION_THRESHOLD;
+        byte[] bytesToSend = compressed ? deflate(recordBytes) : recordBytes;
+
+        out.writeBoolean(compressed);
+        out.writeInt(recordBytes.length);
+        out.writeInt(bytesToSend.length);
+        out.write(bytesToSend);
+    }
+
+    /**
+     * Reads the records, that may have been compressed.
+     *
+     * @param in The stream to read the records from.
+     * @throws IOException            If there is a problem reading from the
+     *                                stream.
+     * @throws ClassNotFoundException Never, the records are read as bytes.
+     */
+    @Override
+    public void readExternal(ObjectInput in)
+            throws IOException, ClassNotFoundException {
+
+        boolean compressed = in.readBoolean();
+        byte[] recordBytes = new byte[in.readInt()];
+        byte[] sentBytes = new byte[in.readInt()];
+        in.readFully(sentBytes);
+
+        if (compressed) {
+            inflate(sentBytes, recordBytes);
+        } else {
+            recordBytes = sentBytes;
+        }
+
+        ObjectInputStream recordsInputStream = new ObjectInputStream(
+                new ByteArrayInputStream(recordBytes));
+        records = new DatabaseRecord[recordsInputStream.readInt()];
+
+        for (int i = 0; i < records.length; i++) {
+            records[i] = new DatabaseRecord();
+            records[i].readExternal(recordsInputStream);
+        }
+    }
+
+    // ---------- Private Methods ----------
+    private byte[] recordsAsBytes() throws IOException {
+
+        ByteArrayOutputStream byteArrayOutputStream =
+                new ByteArrayOutputStream();
+        ObjectOutputStream recordsOutputStream =
+                new ObjectOutputStream(byteArrayOutputStream);
+
+        recordsOutputStream.writeInt(records.length);
+        for (DatabaseRecord record : records) {
+            record.writeExternal(recordsOutputStream);
+        }
+        recordsOutputStream.close();
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+
+        Deflater deflater = new Deflater();
+        ByteArrayOutputStream deflatedBytes =
+                new ByteArrayOutputStream(bytes.length / 2);
+        byte[] buffer = new byte[bytes.length];
+
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            while (!deflater.finished()) {
+                deflatedBytes.write(buffer, 0, deflater.deflate(buffer));
+            }
+        } finally {
+            deflater.end();
+        }
+
+        return deflatedBytes.toByteArray();
+    }
+
+    private static void inflate(byte[] deflatedBytes, byte[] bytes)
+            throws IOException {
+
+        Inflater inflater = new Inflater();
+
+        try {
+            inflater.setInput(deflatedBytes);
+            int inflatedLength = 0;
+
+            while (inflatedLength < bytes.length && !inflater.finished()) {
+
+                int inflated = inflater.inflate(bytes, inflatedLength,
+                        bytes.length - inflatedLength);
+                if (inflated == 0 && inflater.needsInput()) break;
+                inflatedLength += inflated;
+            }
+
+            if (inflatedLength != bytes.length) {
+                throw new IOException("The records were cut short.");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("The records could not be decompressed.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
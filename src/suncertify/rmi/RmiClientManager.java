@@ -1,32 +1,212 @@
 package suncertify.rmi;
 
+import suncertify.utilities.UrlyBirdApplicationConstants;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.net.MalformedURLException;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
 import java.rmi.Naming;
+import java.rmi.NoSuchObjectException;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages the client connections to the server via RMI for the URLyBird
  * Application.
+ * <p/>
+ * The server is looked up once, and the same {@code DatabaseAccessRemote} is
+ * given to every caller on the client. When a call fails because the
+ * connection to the server is broken, for example when the server has been
+ * restarted, the server is looked up again, waiting longer after each failed
+ * attempt, and the call is made again on the new stub.
+ * <p/>
+ * A call is only made again when the exception shows it never reached the
+ * server. That is a {@code ConnectException} or a {@code ConnectIOException},
+ * when no connection could be made, or a {@code NoSuchObjectException}, when
+ * the server no longer exports the object the stub refers to. So a call that
+ * changes the database, such as booking a room, is never made twice.
  *
  * @author Luke GJ Potter
  * @since 08/05/2014
  */
 public class RmiClientManager {
 
+    private static final AtomicLong numberOfReconnects = new AtomicLong();
+
+    /**
+     * The stub of the server that calls are made on. It is replaced when the
+     * server is looked up again.
+     */
+    private static volatile DatabaseAccessRemote databaseAccessRemoteStub;
+    /**
+     * The {@code DatabaseAccessRemote} shared by every caller on the client,
+     * that makes each call on the current stub.
+     */
+    private static DatabaseAccessRemote databaseAccessRemote;
+
+    // ---------- Public Methods ----------
+
     /**
-     * Connects the client GUI to the server.
+     * Connects the client GUI to the server. The server is only looked up
+     * the first time, after that the same {@code DatabaseAccessRemote} is
+     * returned.
      *
-     * @return The DatabaseAccessRemote to make database calls to.
+     * @return The DatabaseAccessRemote to make database calls to. Or NULL if
+     * the server could not be found.
      */
-    public static DatabaseAccessRemote connectToRemoteServerViaRmi() {
+    public static synchronized DatabaseAccessRemote
+    connectToRemoteServerViaRmi() {
+
+        if (databaseAccessRemote == null) {
+
+            DatabaseAccessRemote stub = lookUpRemoteServer();
+            if (stub == null) return null;
+
+            databaseAccessRemoteStub = stub;
+            databaseAccessRemote = createReconnectingDatabaseAccessRemote();
+        }
+
+        return databaseAccessRemote;
+    }
+
+    /**
+     * Forgets the server that the client is connected to, so that the next
+     * call to {@link #connectToRemoteServerViaRmi()} looks the server up
+     * again, at the URL in the suncertify.properties file.
+     */
+    public static synchronized void disconnectFromRemoteServer() {
+
+        databaseAccessRemote = null;
+        databaseAccessRemoteStub = null;
+    }
+
+    /**
+     * Gets the number of times the client has looked the server up again,
+     * after its connection to the server was broken.
+     *
+     * @return The number of reconnects.
+     */
+    public static long getNumberOfReconnects() {
+        return numberOfReconnects.get();
+    }
+
+    // ---------- Private Methods ----------
+    private static DatabaseAccessRemote lookUpRemoteServer() {
+
+        String rmiUrl = RmiUtils.formRmiUrl();
 
         try {
-            return (DatabaseAccessRemote) Naming.lookup(RmiUtils.formRmiUrl());
-        } catch (NotBoundException | MalformedURLException | RemoteException ignored) {
+            return (DatabaseAccessRemote) Naming.lookup(rmiUrl);
+        } catch (NotBoundException | MalformedURLException
+                | RemoteException e) {
+            System.out.println("Error connecting to the server at "
+                    + rmiUrl + ".");
+            e.printStackTrace();
         }
 
         return null;
     }
+
+    private static DatabaseAccessRemote
+    createReconnectingDatabaseAccessRemote() {
+
+        InvocationHandler reconnectingInvocationHandler =
+                new InvocationHandler() {
+
+                    @Override
+                    public Object invoke(Object proxy, Method method,
+                                         Object[] args) throws Throwable {
+
+                        DatabaseAccessRemote stub = databaseAccessRemoteStub;
+
+                        try {
+                            return invokeOnStub(stub, method, args);
+                        } catch (RemoteException e) {
+                            if (!isConnectionBroken(e)) throw e;
+                            return invokeOnStub(reconnect(stub, e), method,
+                                    args);
+                        }
+                    }
+                };
+
+        return (DatabaseAccessRemote) Proxy.newProxyInstance(
+                DatabaseAccessRemote.class.getClassLoader(),
+                new Class<?>[]{DatabaseAccessRemote.class},
+                reconnectingInvocationHandler);
+    }
+
+    private static Object invokeOnStub(DatabaseAccessRemote stub,
+                                       Method method, Object[] args)
+            throws Throwable {
+
+        try {
+            return method.invoke(stub, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static boolean isConnectionBroken(RemoteException e) {
+        return e instanceof ConnectException
+                || e instanceof ConnectIOException
+                || e instanceof NoSuchObjectException;
+    }
+
+    /**
+     * Looks the server up again, waiting longer after each failed attempt.
+     * Only one thread looks the server up at a time, and a thread that finds
+     * the stub has already been replaced uses the new stub.
+     *
+     * @param brokenStub The stub whose connection to the server is broken.
+     * @param e          The exception that showed the connection is broken.
+     * @return The new stub of the server.
+     * @throws RemoteException The exception that showed the connection is
+     *                         broken, if the server could not be found.
+     */
+    private static synchronized DatabaseAccessRemote reconnect(
+            DatabaseAccessRemote brokenStub, RemoteException e)
+            throws RemoteException {
+
+        if (databaseAccessRemoteStub != brokenStub
+                && databaseAccessRemoteStub != null) {
+            return databaseAccessRemoteStub;
+        }
+
+        long backoffMilliseconds = UrlyBirdApplicationConstants
+                .RMI_RECONNECT_INITIAL_BACKOFF_MILLISECONDS;
+
+        for (int attempt = 1;
+             attempt <= UrlyBirdApplicationConstants.RMI_RECONNECT_ATTEMPTS;
+             attempt++) {
+
+            DatabaseAccessRemote stub = lookUpRemoteServer();
+
+            if (stub != null) {
+                databaseAccessRemoteStub = stub;
+                System.out.println("Reconnected to the server after "
+                        + attempt + " attempt(s), reconnects: "
+                        + numberOfReconnects.incrementAndGet() + ".");
+                return stub;
+            }
+
+            if (attempt < UrlyBirdApplicationConstants.RMI_RECONNECT_ATTEMPTS) {
+                try {
+                    Thread.sleep(backoffMilliseconds);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMilliseconds = Math.min(backoffMilliseconds * 2,
+                        UrlyBirdApplicationConstants
+                                .RMI_RECONNECT_MAXIMUM_BACKOFF_MILLISECONDS);
+            }
+        }
+
+        throw e;
+    }
 }
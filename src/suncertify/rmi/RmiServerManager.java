@@ -1,5 +1,6 @@
 package suncertify.rmi;
 
+import suncertify.db.Data;
 import suncertify.utilities.UrlyBirdApplicationConstants;
 import suncertify.utilities.UrlyBirdApplicationObjectsFactory;
 
@@ -55,4 +56,20 @@ public class RmiServerManager {
     public static boolean isRmiServerRunning() {
         return (rmiServerStatus == RmiServerStatus.RUNNING);
     }
+
+    /**
+     * Gets the locking statistics of the RMI Server for the URLyBird
+     * Application.
+     *
+     * @return The number of locked records, the number of timed locks that
+     * timed out, and the number of locks that expired, in that order.
+     */
+    public static long[] getLockStatistics() {
+
+        Data data = new Data();
+
+        return new long[]{data.getNumberOfLockedRecords(),
+                data.getNumberOfLockTimeouts(),
+                data.getNumberOfExpiredLocks()};
+    }
 }
@@ -30,6 +30,21 @@ public class UrlyBirdApplicationConstants {
      */
     public static final String PROPERTY_FILE_KEY_RMI_PORT_NUMBER =
             "rmiPortNumber";
+    /**
+     * Used to load the database storage mode key in the
+     * {@code suncertify.properties} file. This key is optional.
+     */
+    public static final String PROPERTY_FILE_KEY_DATABASE_STORAGE_MODE =
+            "databaseStorageMode";
+    /**
+     * The database storage mode that reads and writes the database file
+     * through a {@code FileChannel}. This is the default storage mode.
+     */
+    public static final String DATABASE_STORAGE_MODE_CHANNEL = "channel";
+    /**
+     * The database storage mode that maps the database file into memory.
+     */
+    public static final String DATABASE_STORAGE_MODE_MAPPED = "mapped";
     /**
      * Used to specify the mode to open the database file across the
      * application.
@@ -63,6 +78,31 @@ public class UrlyBirdApplicationConstants {
      * RMI Application Path.
      */
     public static final String RMI_APPLICATION_PATH = "/URLyBird";
+    /**
+     * The most records that the Networked Client gets from the server in one
+     * call, when it gets all the records.
+     */
+    public static final int RMI_RECORDS_PAGE_SIZE = 1000;
+    /**
+     * The size, in bytes, above which the records the RMI server sends back
+     * are compressed.
+     */
+    public static final int RMI_COMPRESSION_THRESHOLD = 4096;
+    /**
+     * The number of times the Networked Client looks the server up again,
+     * when its connection to the server is broken, before it gives up.
+     */
+    public static final int RMI_RECONNECT_ATTEMPTS = 5;
+    /**
+     * The time, in milliseconds, the Networked Client waits before it first
+     * looks the server up again. The wait doubles after each attempt.
+     */
+    public static final long RMI_RECONNECT_INITIAL_BACKOFF_MILLISECONDS = 100;
+    /**
+     * The longest time, in milliseconds, the Networked Client waits between
+     * two attempts to look the server up again.
+     */
+    public static final long RMI_RECONNECT_MAXIMUM_BACKOFF_MILLISECONDS = 2000;
     /**
      * The CommandLine Argument to specify that the Client GUI should be
      * launched and connect to the local database.
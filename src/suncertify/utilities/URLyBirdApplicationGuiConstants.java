@@ -84,6 +84,18 @@ public class UrlyBirdApplicationGuiConstants {
      * running.
      */
     public static final String SERVER_STARTED = "Server Running";
+    /**
+     * The label to be displayed, on the Server GUI, when the server is
+     * running, with the number of locked records, lock timeouts, and expired
+     * locks.
+     */
+    public static final String SERVER_STARTED_WITH_LOCK_STATISTICS =
+            "Server Running, Locked: %d, Timed Out: %d, Expired: %d";
+    /**
+     * How often, in milliseconds, the statistics on the Server GUI are
+     * refreshed.
+     */
+    public static final int SERVER_STATISTICS_REFRESH_MILLISECONDS = 1000;
 
     // ---------- Dimension Constants ----------
     // ----- Client GUI -----
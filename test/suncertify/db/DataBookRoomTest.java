@@ -0,0 +1,111 @@
+package suncertify.db;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the booking of rooms with the {@link Data} class. A free room must be
+ * booked, and a booked room must not be booked again. Then many threads book
+ * each free room at once, and exactly one booking of each room must succeed,
+ * with the room left booked by the winning thread.
+ * <p/>
+ * The database file named in the {@code suncertify.properties} file is
+ * changed, so it should be run against a copy of the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataBookRoomTest {
+
+    private static final int NUMBER_OF_BOOKERS = 16;
+    private static final String DATE = "2026/10/18";
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        long[] freeRecordNumbers = findFreeRecordNumbers();
+        System.out.println("Free rooms: " + freeRecordNumbers.length);
+
+        long recordNumber = freeRecordNumbers[0];
+        System.out.println("Book a free room: "
+                + data.bookRoom(recordNumber, "11111111", DATE));
+        System.out.println("Book it again: "
+                + data.bookRoom(recordNumber, "22222222", DATE));
+        System.out.println("Owner: " + owner(recordNumber));
+
+        int doubleBookings = 0;
+        for (int i = 1; i < freeRecordNumbers.length; i++) {
+            if (bookAtOnce(freeRecordNumbers[i]) != 1) doubleBookings++;
+        }
+
+        System.out.println("Rooms booked by many clients at once: "
+                + (freeRecordNumbers.length - 1) + ", not booked exactly once: "
+                + doubleBookings);
+    }
+
+    private static int bookAtOnce(final long recordNumber) throws Exception {
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger bookings = new AtomicInteger();
+        final AtomicInteger winner = new AtomicInteger(-1);
+        Thread[] bookers = new Thread[NUMBER_OF_BOOKERS];
+
+        for (int i = 0; i < NUMBER_OF_BOOKERS; i++) {
+
+            final int booker = i;
+            bookers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        if (data.bookRoom(recordNumber,
+                                String.valueOf(10000000 + booker), DATE)) {
+                            bookings.incrementAndGet();
+                            winner.set(booker);
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            };
+            bookers[i].start();
+        }
+
+        start.countDown();
+        for (Thread booker : bookers) booker.join();
+
+        if (!owner(recordNumber).equals(
+                String.valueOf(10000000 + winner.get()))) {
+            System.out.println("Record " + recordNumber
+                    + " is not owned by the winning booker.");
+        }
+
+        return bookings.get();
+    }
+
+    private static long[] findFreeRecordNumbers()
+            throws RecordNotFoundException {
+
+        long[] recordNumbers = data.findByCriteria(new String[]{null});
+        long[] freeRecordNumbers = new long[recordNumbers.length];
+        int numberOfFreeRecords = 0;
+
+        for (long recordNumber : recordNumbers) {
+            if (owner(recordNumber).isEmpty()) {
+                freeRecordNumbers[numberOfFreeRecords++] = recordNumber;
+            }
+        }
+
+        long[] result = new long[numberOfFreeRecords];
+        System.arraycopy(freeRecordNumbers, 0, result, 0, numberOfFreeRecords);
+
+        return result;
+    }
+
+    private static String owner(long recordNumber)
+            throws RecordNotFoundException {
+        return data.readRecord(recordNumber)[
+                DatabaseFileSchema.OWNER_FIELD_INDEX].trim();
+    }
+}
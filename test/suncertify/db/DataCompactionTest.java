@@ -0,0 +1,254 @@
+package suncertify.db;
+
+import suncertify.utilities.UrlyBirdApplicationConstants;
+import suncertify.utilities.UrlyBirdApplicationObjectsFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Tests the compaction of the database file. Records are created and most of
+ * them deleted, then the database is compacted while other threads read it.
+ * The records are checked against their new record numbers, and a record
+ * number from before the compaction is checked to be refused when it is
+ * locked or booked with the generation it was read in. The time of a
+ * scan-based search before and after the compaction is printed, and whether
+ * the test passed or failed.
+ * <p/>
+ * The test is run on a temporary copy of the database file named in the
+ * {@code suncertify.properties} file. The properties file is pointed at the
+ * copy while the test runs, and put back as it was afterwards.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataCompactionTest {
+
+    private static final int RECORDS_TO_CREATE = 30000;
+    private static final int SEARCHES_TO_TIME = 50;
+    private static final int NUMBER_OF_READER_THREADS = 2;
+
+    private static Data data;
+    private static volatile boolean reading = true;
+
+    public static void main(String[] args) throws Exception {
+
+        Path propertiesFile =
+                Paths.get(UrlyBirdApplicationConstants.PROPERTY_FILE_NAME);
+        Properties properties =
+                UrlyBirdApplicationObjectsFactory
+                        .getUrlyBirdApplicationProperties();
+        byte[] originalProperties = Files.readAllBytes(propertiesFile);
+
+        File databaseFileCopy = File.createTempFile("compaction", ".db");
+        Files.copy(Paths.get(properties.getProperty(
+                        UrlyBirdApplicationConstants
+                                .PROPERTY_FILE_KEY_PATH_TO_DATABASE_FILE)),
+                databaseFileCopy.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        boolean passed;
+
+        try {
+            properties.setProperty(UrlyBirdApplicationConstants
+                            .PROPERTY_FILE_KEY_PATH_TO_DATABASE_FILE,
+                    databaseFileCopy.getPath());
+            storeProperties(properties, propertiesFile);
+
+            data = new Data();
+            passed = compactDatabase();
+
+        } finally {
+
+            Files.write(propertiesFile, originalProperties);
+            Files.deleteIfExists(databaseFileCopy.toPath());
+        }
+
+        System.out.println("Compaction test: " + (passed ? "PASS" : "FAIL"));
+        if (!passed) System.exit(1);
+    }
+
+    private static boolean compactDatabase() throws Exception {
+
+        long[] createdRecordNumbers = new long[RECORDS_TO_CREATE];
+
+        for (int i = 0; i < RECORDS_TO_CREATE; i++) {
+            createdRecordNumbers[i] = data.createRecord(new String[]{
+                    "Compaction Hotel " + i, "Compaction City", "2", "N",
+                    "$90.00", "2026/10/18", ""});
+        }
+
+        // Keep one in three of the new records.
+        for (int i = 0; i < RECORDS_TO_CREATE; i++) {
+            if (i % 3 != 0) {
+                data.deleteRecord(createdRecordNumbers[i],
+                        data.lockRecord(createdRecordNumbers[i]));
+            }
+        }
+
+        Map<Long, String[]> recordsBeforeCompaction = new HashMap<>();
+        for (long recordNumber : data.findByCriteria(new String[]{null})) {
+            recordsBeforeCompaction.put(recordNumber,
+                    data.readRecord(recordNumber));
+        }
+
+        long generationBefore = data.getCompactionGeneration();
+        long recordsBefore = DatabaseFileUtils.getInstance()
+                .getNumberOfRecordsInDatabase();
+        long searchTimeBefore = timeScanSearch();
+
+        Thread[] readerThreads = startReaderThreads(
+                data.findByCriteria(new String[]{null}));
+        long startTime = System.currentTimeMillis();
+        long[] newRecordNumbers = data.compactDatabase();
+        long compactionTime = System.currentTimeMillis() - startTime;
+        reading = false;
+        for (Thread readerThread : readerThreads) readerThread.join();
+
+        if (newRecordNumbers == null) {
+            System.out.println("The database was not compacted");
+            return false;
+        }
+
+        long recordsAfter = DatabaseFileUtils.getInstance()
+                .getNumberOfRecordsInDatabase();
+        long searchTimeAfter = timeScanSearch();
+
+        System.out.println("Compacted " + recordsBefore + " records to "
+                + recordsAfter + " in " + compactionTime + " ms");
+        System.out.println("Scan search: " + searchTimeBefore + " ms before, "
+                + searchTimeAfter + " ms after (" + SEARCHES_TO_TIME
+                + " searches)");
+
+        int mismatches = 0;
+        for (Map.Entry<Long, String[]> entry
+                : recordsBeforeCompaction.entrySet()) {
+
+            long newRecordNumber =
+                    newRecordNumbers[entry.getKey().intValue()];
+            if (!Arrays.equals(entry.getValue(),
+                    data.readRecord(newRecordNumber))) {
+                mismatches++;
+            }
+        }
+
+        long validRecordsAfter =
+                data.findByCriteria(new String[]{null}).length;
+        System.out.println("Records checked: " + recordsBeforeCompaction.size()
+                + ", mismatches: " + mismatches);
+        System.out.println("Valid records after: " + validRecordsAfter
+                + ", records in database: " + recordsAfter);
+
+        // The second record kept was renumbered, and its old number is now
+        // the number of another record.
+        long staleRecordNumber = createdRecordNumbers[3];
+        long currentRecordNumber =
+                newRecordNumbers[(int) staleRecordNumber];
+        boolean staleRefused = isRefused(staleRecordNumber, generationBefore);
+        boolean currentAccepted = !isRefused(currentRecordNumber,
+                data.getCompactionGeneration());
+        System.out.println("Generation: " + generationBefore + " before, "
+                + data.getCompactionGeneration() + " after, record "
+                + staleRecordNumber + " of the old generation refused: "
+                + staleRefused + ", record " + currentRecordNumber
+                + " of the new generation accepted: " + currentAccepted);
+
+        return mismatches == 0
+                && validRecordsAfter == recordsBeforeCompaction.size()
+                && recordsAfter == validRecordsAfter
+                && staleRecordNumber < recordsAfter
+                && staleRefused && currentAccepted;
+    }
+
+    // Whether a lock and a booking of the record are both refused.
+    private static boolean isRefused(long recordNumber,
+                                     long compactionGeneration)
+            throws RecordLockTimeoutException {
+
+        boolean lockRefused;
+        try {
+            data.unlock(recordNumber, data.lockRecord(recordNumber, 1000,
+                    compactionGeneration));
+            lockRefused = false;
+        } catch (RecordNotFoundException e) {
+            lockRefused = true;
+        }
+
+        boolean bookingRefused;
+        try {
+            data.bookRoom(recordNumber, "12345678", "2026/10/18",
+                    compactionGeneration);
+            bookingRefused = false;
+        } catch (RecordNotFoundException e) {
+            bookingRefused = true;
+        }
+
+        return lockRefused && bookingRefused;
+    }
+
+    private static void storeProperties(Properties properties,
+                                        Path propertiesFile)
+            throws IOException {
+
+        OutputStream outputStream =
+                new FileOutputStream(propertiesFile.toFile());
+
+        try {
+            properties.store(outputStream, null);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    private static long timeScanSearch() {
+
+        // A search on a field other than the name or location scans the file.
+        String[] criteria = new String[]{null, null, "2"};
+        long startTime = System.currentTimeMillis();
+
+        for (int i = 0; i < SEARCHES_TO_TIME; i++) {
+            data.findByCriteria(criteria);
+        }
+
+        return System.currentTimeMillis() - startTime;
+    }
+
+    private static Thread[] startReaderThreads(final long[] recordNumbers) {
+
+        Thread[] readerThreads = new Thread[NUMBER_OF_READER_THREADS];
+
+        for (int i = 0; i < NUMBER_OF_READER_THREADS; i++) {
+
+            readerThreads[i] = new Thread() {
+                @Override
+                public void run() {
+                    long reads = 0;
+                    while (reading) {
+                        try {
+                            data.readRecord(recordNumbers[
+                                    (int) (reads % recordNumbers.length)]);
+                        } catch (RecordNotFoundException ignored) {
+                            // The record was renumbered by the compaction.
+                        }
+                        reads++;
+                    }
+                    System.out.println(getName() + " read " + reads
+                            + " records during the compaction");
+                }
+            };
+            readerThreads[i].start();
+        }
+
+        return readerThreads;
+    }
+}
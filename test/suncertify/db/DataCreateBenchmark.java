@@ -0,0 +1,65 @@
+package suncertify.db;
+
+/**
+ * A bulk loading benchmark for the {@link Data} class. A number of threads
+ * create new, unique, records in the database, and the records created per
+ * second are printed.
+ * <p/>
+ * The records are appended to the database file named in the
+ * {@code suncertify.properties} file, so it should be run against a copy of
+ * the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataCreateBenchmark {
+
+    private static final int NUMBER_OF_THREADS = 4;
+    private static final int RECORDS_PER_THREAD = 50000;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws InterruptedException {
+
+        // Load the database and its indexes before the timing starts.
+        data.findByCriteria(new String[]{"Palace", "Smallville"});
+
+        Thread[] threads = new Thread[NUMBER_OF_THREADS];
+        long startTime = System.currentTimeMillis();
+
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+
+            final int threadIndex = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < RECORDS_PER_THREAD; j++) {
+                        try {
+                            data.createRecord(new String[]{
+                                    "Hotel " + threadIndex + "-" + j,
+                                    "Benchmark City", "2", "N", "$90.00",
+                                    "2026/10/18", ""});
+                        } catch (DuplicateKeyException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long elapsedMilliseconds = System.currentTimeMillis() - startTime;
+        int recordsCreated = NUMBER_OF_THREADS * RECORDS_PER_THREAD;
+
+        System.out.println("createRecord: " + recordsCreated + " records in "
+                + elapsedMilliseconds + " ms, "
+                + (recordsCreated * 1000L / Math.max(1, elapsedMilliseconds))
+                + " records/sec (" + NUMBER_OF_THREADS + " threads)");
+        System.out.println("Records in database: " + DatabaseFileUtils
+                .getInstance().getNumberOfRecordsInDatabase());
+    }
+}
@@ -0,0 +1,166 @@
+package suncertify.db;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A benchmark of the record locking of the {@link Data} class under many
+ * clients. Each client thread repeatedly locks random records, reads them and
+ * unlocks them, like a booking that is abandoned, and the bookings per second
+ * are printed. A booking is of one room, or of a group of rooms, locked with
+ * {@code lockRecords} or with {@code lockRecord} in a loop.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataLockBenchmark {
+
+    private static final int NUMBER_OF_CLIENTS = 200;
+    private static final int ROOMS_PER_GROUP_BOOKING = 3;
+    private static final long GROUP_LOCK_TIMEOUT_MILLISECONDS = 1000;
+    private static final long WARM_UP_MILLISECONDS = 2000;
+    private static final long MEASUREMENT_MILLISECONDS = 5000;
+
+    private static final Data data = new Data();
+    private static final AtomicLong bookings = new AtomicLong();
+    private static final AtomicLong timeouts = new AtomicLong();
+    private static long[] recordNumbers;
+    private static volatile boolean running;
+
+    public static void main(String[] args) throws InterruptedException {
+
+        recordNumbers = data.findByCriteria(new String[]{null});
+
+        run("lockRecord/unlock, 1 room", new Booking() {
+            @Override
+            public void book() throws Exception {
+
+                long recordNumber = randomRecordNumbers(1)[0];
+                long lockCookie = data.lockRecord(recordNumber);
+                data.readRecord(recordNumber);
+                data.unlock(recordNumber, lockCookie);
+            }
+        });
+        run("lockRecords/unlock, " + ROOMS_PER_GROUP_BOOKING + " rooms",
+                new Booking() {
+                    @Override
+                    public void book() throws Exception {
+
+                        long[] groupRecordNumbers =
+                                randomRecordNumbers(ROOMS_PER_GROUP_BOOKING);
+                        long[] lockCookies = data.lockRecords(
+                                groupRecordNumbers,
+                                GROUP_LOCK_TIMEOUT_MILLISECONDS);
+                        readAndUnlock(groupRecordNumbers, lockCookies);
+                    }
+                });
+        run("lockRecord loop in order/unlock, " + ROOMS_PER_GROUP_BOOKING
+                + " rooms", new Booking() {
+            @Override
+            public void book() throws Exception {
+
+                long[] groupRecordNumbers =
+                        randomRecordNumbers(ROOMS_PER_GROUP_BOOKING);
+                Arrays.sort(groupRecordNumbers);
+                long[] lockCookies = new long[groupRecordNumbers.length];
+                for (int i = 0; i < groupRecordNumbers.length; i++) {
+                    lockCookies[i] = data.lockRecord(groupRecordNumbers[i]);
+                }
+                readAndUnlock(groupRecordNumbers, lockCookies);
+            }
+        });
+    }
+
+    private static void run(String name, final Booking booking)
+            throws InterruptedException {
+
+        bookings.set(0);
+        timeouts.set(0);
+        running = true;
+        Thread[] clients = new Thread[NUMBER_OF_CLIENTS];
+
+        for (int i = 0; i < NUMBER_OF_CLIENTS; i++) {
+
+            clients[i] = new Thread() {
+                @Override
+                public void run() {
+                    while (running) {
+                        try {
+                            booking.book();
+                            bookings.incrementAndGet();
+
+                        } catch (RecordLockTimeoutException e) {
+                            timeouts.incrementAndGet();
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            };
+            clients[i].start();
+        }
+
+        Thread.sleep(WARM_UP_MILLISECONDS);
+        long bookingsBefore = bookings.get();
+        long timeoutsBefore = timeouts.get();
+        Thread.sleep(MEASUREMENT_MILLISECONDS);
+        long measuredBookings = bookings.get() - bookingsBefore;
+        long measuredTimeouts = timeouts.get() - timeoutsBefore;
+
+        running = false;
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        System.out.println(name + ": "
+                + (measuredBookings * 1000 / MEASUREMENT_MILLISECONDS)
+                + " bookings/sec, " + measuredTimeouts + " timeouts ("
+                + NUMBER_OF_CLIENTS + " clients, " + recordNumbers.length
+                + " records)");
+    }
+
+    private static long[] randomRecordNumbers(int numberOfRecords) {
+
+        long[] randomRecordNumbers = new long[numberOfRecords];
+
+        for (int i = 0; i < numberOfRecords; i++) {
+
+            long recordNumber;
+            do {
+                recordNumber = recordNumbers[ThreadLocalRandom.current()
+                        .nextInt(recordNumbers.length)];
+            } while (contains(randomRecordNumbers, i, recordNumber));
+
+            randomRecordNumbers[i] = recordNumber;
+        }
+
+        return randomRecordNumbers;
+    }
+
+    private static boolean contains(long[] array, int length, long value) {
+
+        for (int i = 0; i < length; i++) {
+            if (array[i] == value) return true;
+        }
+
+        return false;
+    }
+
+    private static void readAndUnlock(long[] groupRecordNumbers,
+                                      long[] lockCookies)
+            throws RecordNotFoundException {
+
+        for (int i = 0; i < groupRecordNumbers.length; i++) {
+            data.readRecord(groupRecordNumbers[i]);
+            data.unlock(groupRecordNumbers[i], lockCookies[i]);
+        }
+    }
+
+    private interface Booking {
+        void book() throws Exception;
+    }
+}
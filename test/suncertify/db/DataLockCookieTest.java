@@ -0,0 +1,91 @@
+package suncertify.db;
+
+/**
+ * Tests the lock cookies. A record is locked on one thread and updated and
+ * unlocked on another, as the calls of an RMI client can be, and a cookie
+ * that was not returned by the lock is refused, even when the record is not
+ * locked. The results are printed.
+ * <p/>
+ * A record is updated with its own values, and should not be deleted, so it
+ * can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataLockCookieTest {
+
+    private static final long RECORD_NUMBER = 5;
+    private static final long MADE_UP_COOKIE = 12345;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        final long lockCookie = data.lockRecord(RECORD_NUMBER);
+        System.out.println("Cookie is the thread id: "
+                + (lockCookie == Thread.currentThread().getId()));
+
+        try {
+            data.updateRecord(RECORD_NUMBER, data.readRecord(RECORD_NUMBER),
+                    Thread.currentThread().getId());
+            System.out.println("Updated with the thread id, expected an error");
+        } catch (SecurityException e) {
+            System.out.println("Updating with the thread id: "
+                    + e.getMessage());
+        }
+
+        Thread otherThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    data.updateRecord(RECORD_NUMBER,
+                            data.readRecord(RECORD_NUMBER), lockCookie);
+                    System.out.println("Still locked after the update: "
+                            + isRecordLocked());
+                    data.unlock(RECORD_NUMBER, lockCookie);
+                    System.out.println("Updated and unlocked on another"
+                            + " thread");
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        otherThread.start();
+        otherThread.join();
+
+        long secondCookie = data.lockRecord(RECORD_NUMBER);
+        System.out.println("A new lock has a new cookie: "
+                + (secondCookie != lockCookie));
+        data.unlock(RECORD_NUMBER, secondCookie);
+
+        try {
+            data.updateRecord(RECORD_NUMBER, data.readRecord(RECORD_NUMBER),
+                    MADE_UP_COOKIE);
+            System.out.println("Updated an unlocked record with a made up"
+                    + " cookie, expected an error");
+        } catch (SecurityException e) {
+            System.out.println("Updating an unlocked record with a made up"
+                    + " cookie: " + e.getMessage());
+        }
+
+        try {
+            data.deleteRecord(RECORD_NUMBER, MADE_UP_COOKIE);
+            System.out.println("Deleted an unlocked record with a made up"
+                    + " cookie, expected an error");
+        } catch (SecurityException e) {
+            System.out.println("Deleting an unlocked record with a made up"
+                    + " cookie: " + e.getMessage());
+        }
+    }
+
+    private static boolean isRecordLocked() throws RecordNotFoundException {
+
+        try {
+            data.unlock(RECORD_NUMBER, data.tryLockRecord(RECORD_NUMBER));
+            return false;
+        } catch (RecordLockTimeoutException e) {
+            return true;
+        }
+    }
+}
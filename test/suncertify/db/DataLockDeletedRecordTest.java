@@ -0,0 +1,83 @@
+package suncertify.db;
+
+/**
+ * Tests locking a record that is deleted. A client waiting to lock a record
+ * that is deleted must get a {@code RecordNotFoundException}, not the lock. A
+ * lock that is held on a deleted record must be released by {@code unlock}
+ * with its cookie, and must not hold up {@code createRecord}, which skips the
+ * locked record instead of reusing it.
+ * <p/>
+ * The database file named in the {@code suncertify.properties} file is
+ * changed, so it should be run against a copy of the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataLockDeletedRecordTest {
+
+    private static final long WAITED_FOR_RECORD_NUMBER = 8;
+    private static final long LOCKED_RECORD_NUMBER = 7;
+    private static final long WAIT_MILLISECONDS = 200;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        long lockCookie = data.lockRecord(WAITED_FOR_RECORD_NUMBER);
+        final String[] waitingClientResult = new String[1];
+
+        Thread waitingClient = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    data.lockRecord(WAITED_FOR_RECORD_NUMBER);
+                    waitingClientResult[0] = "locked the deleted record";
+                } catch (RecordNotFoundException e) {
+                    waitingClientResult[0] = "RecordNotFoundException";
+                }
+            }
+        };
+        waitingClient.start();
+        Thread.sleep(WAIT_MILLISECONDS);
+
+        data.deleteRecord(WAITED_FOR_RECORD_NUMBER, lockCookie);
+        waitingClient.join();
+        System.out.println("Waiting for a record that is deleted: "
+                + waitingClientResult[0] + ", locked records: "
+                + data.getNumberOfLockedRecords());
+
+        // A lock that outlived the deletion of its record.
+        data.deleteRecord(LOCKED_RECORD_NUMBER,
+                data.lockRecord(LOCKED_RECORD_NUMBER));
+        long deletedRecordCookie = DatabaseAccessLockManager.getInstance()
+                .lockRecordWhenCreatingNewRecord(LOCKED_RECORD_NUMBER);
+
+        long startTime = System.currentTimeMillis();
+        long recordNumber = data.createRecord(newRecord("Skipping"));
+        System.out.println("Created record " + recordNumber + " in "
+                + (System.currentTimeMillis() - startTime)
+                + " ms, while record " + LOCKED_RECORD_NUMBER
+                + " is deleted and locked");
+
+        try {
+            data.unlock(LOCKED_RECORD_NUMBER, deletedRecordCookie + 1);
+            System.out.println("Unlocked the deleted record with the wrong"
+                    + " cookie");
+        } catch (SecurityException e) {
+            System.out.println("Unlock with the wrong cookie: "
+                    + e.getMessage());
+        }
+
+        data.unlock(LOCKED_RECORD_NUMBER, deletedRecordCookie);
+        System.out.println("Unlocked the deleted record with its cookie,"
+                + " locked records: " + data.getNumberOfLockedRecords());
+        System.out.println("Created record "
+                + data.createRecord(newRecord("Reusing"))
+                + " once it is unlocked");
+    }
+
+    private static String[] newRecord(String name) {
+        return new String[]{name, "Lockville", "2", "N", "$90.00",
+                "2026/10/18", ""};
+    }
+}
@@ -0,0 +1,98 @@
+package suncertify.db;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the expiry of the lock leases. A client locks a record and dies
+ * without unlocking it, while another client waits for the record. The
+ * leases are then expired, as the sweeper would after thirty seconds, and the
+ * waiting client gets the record. A renewed lock is checked not to expire,
+ * and an expired lock is checked not to renew, update or delete the record.
+ * <p/>
+ * Nothing should be written, so it can be run against the database file named
+ * in the {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataLockLeaseTest {
+
+    private static final long RECORD_NUMBER = 5;
+
+    private static final Data data = new Data();
+    private static final DatabaseAccessLockManager databaseAccessLockManager =
+            DatabaseAccessLockManager.getInstance();
+
+    public static void main(String[] args) throws Exception {
+
+        final long[] crashedClientCookie = new long[1];
+        Thread crashedClient = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    crashedClientCookie[0] = data.lockRecord(RECORD_NUMBER);
+                } catch (RecordNotFoundException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        crashedClient.start();
+        crashedClient.join();
+
+        Thread waitingClient = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    long lockCookie = data.lockRecord(RECORD_NUMBER);
+                    System.out.println("Waiting client locked the record");
+                    data.renewLock(RECORD_NUMBER, lockCookie);
+                    System.out.println("Renewed lock expired: "
+                            + (databaseAccessLockManager
+                            .expireLeases(System.nanoTime()) != 0));
+                    data.unlock(RECORD_NUMBER, lockCookie);
+                } catch (RecordNotFoundException e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        waitingClient.start();
+        Thread.sleep(200);
+        System.out.println("Waiting client blocked: " + waitingClient.isAlive());
+
+        int expiredLocks = databaseAccessLockManager.expireLeases(
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(31));
+        System.out.println("Expired locks: " + expiredLocks);
+        waitingClient.join(5000);
+        System.out.println("Waiting client finished: "
+                + !waitingClient.isAlive());
+
+        try {
+            data.renewLock(RECORD_NUMBER, crashedClientCookie[0]);
+            System.out.println("Renewed an expired lock, expected an error");
+        } catch (SecurityException e) {
+            System.out.println("Renewing the expired lock: " + e.getMessage());
+        }
+
+        try {
+            data.updateRecord(RECORD_NUMBER, data.readRecord(RECORD_NUMBER),
+                    crashedClientCookie[0]);
+            System.out.println("Updated with an expired lock, expected an"
+                    + " error");
+        } catch (SecurityException e) {
+            System.out.println("Updating with the expired lock: "
+                    + e.getMessage());
+        }
+
+        try {
+            data.deleteRecord(RECORD_NUMBER, crashedClientCookie[0]);
+            System.out.println("Deleted with an expired lock, expected an"
+                    + " error");
+        } catch (SecurityException e) {
+            System.out.println("Deleting with the expired lock: "
+                    + e.getMessage());
+        }
+
+        System.out.println("Locked records: " + data.getNumberOfLockedRecords()
+                + ", expired locks: " + data.getNumberOfExpiredLocks());
+    }
+}
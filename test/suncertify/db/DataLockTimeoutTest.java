@@ -0,0 +1,89 @@
+package suncertify.db;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests the timed and non-blocking locks of the {@link Data} class. Another
+ * client holds a record, while this client tries to lock it, waits for it
+ * with a timeout that runs out, and waits for it with a timeout that is long
+ * enough. It also locks a group of records that includes the held record,
+ * which must lock none of them. The results, and the timeout metrics, are
+ * printed.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataLockTimeoutTest {
+
+    private static final long RECORD_NUMBER = 5;
+    private static final long HOLD_MILLISECONDS = 1000;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        final CountDownLatch recordLocked = new CountDownLatch(1);
+        Thread otherClient = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    long lockCookie = data.lockRecord(RECORD_NUMBER);
+                    recordLocked.countDown();
+                    Thread.sleep(HOLD_MILLISECONDS);
+                    data.unlock(RECORD_NUMBER, lockCookie);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        };
+        otherClient.start();
+        recordLocked.await();
+
+        long startTime = System.currentTimeMillis();
+        try {
+            data.tryLockRecord(RECORD_NUMBER);
+            System.out.println("tryLockRecord: locked, expected a timeout");
+        } catch (RecordLockTimeoutException e) {
+            System.out.println("tryLockRecord: gave up after "
+                    + (System.currentTimeMillis() - startTime) + " ms");
+        }
+
+        startTime = System.currentTimeMillis();
+        try {
+            data.lockRecord(RECORD_NUMBER, 200);
+            System.out.println("lockRecord(200): locked, expected a timeout");
+        } catch (RecordLockTimeoutException e) {
+            System.out.println("lockRecord(200): gave up after "
+                    + (System.currentTimeMillis() - startTime) + " ms");
+        }
+
+        try {
+            data.lockRecords(new long[]{7, RECORD_NUMBER, 3}, 200);
+            System.out.println("lockRecords(200): locked, expected a timeout");
+        } catch (RecordLockTimeoutException e) {
+            long[] lockCookies = data.lockRecords(new long[]{7, 3}, 0);
+            System.out.println("lockRecords(200): gave up, and left the other"
+                    + " records unlocked");
+            data.unlock(7, lockCookies[0]);
+            data.unlock(3, lockCookies[1]);
+        }
+
+        startTime = System.currentTimeMillis();
+        long lockCookie = data.lockRecord(RECORD_NUMBER, 5000);
+        System.out.println("lockRecord(5000): locked after "
+                + (System.currentTimeMillis() - startTime) + " ms");
+        data.unlock(RECORD_NUMBER, lockCookie);
+
+        lockCookie = data.tryLockRecord(RECORD_NUMBER);
+        System.out.println("tryLockRecord: locked an unlocked record");
+        data.unlock(RECORD_NUMBER, lockCookie);
+        otherClient.join();
+
+        System.out.println("Timed lock attempts: "
+                + data.getNumberOfTimedLockAttempts() + ", timeouts: "
+                + data.getNumberOfLockTimeouts());
+    }
+}
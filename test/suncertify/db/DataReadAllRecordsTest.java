@@ -0,0 +1,58 @@
+package suncertify.db;
+
+import suncertify.controller.DatabaseAccessDaoLocal;
+
+/**
+ * Tests reading all the records with the {@link Data} class. After a record
+ * in the middle of the database file is deleted, every other record must be
+ * read, all at once and a page at a time, and the local DAO must get a
+ * {@code HotelRoom} for each of them.
+ * <p/>
+ * The database file named in the {@code suncertify.properties} file is
+ * changed, so it should be run against a copy of the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataReadAllRecordsTest {
+
+    private static final long RECORD_NUMBER = 3;
+    private static final int PAGE_SIZE = 7;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        data.deleteRecord(RECORD_NUMBER, data.lockRecord(RECORD_NUMBER));
+        int numberOfValidRecords =
+                data.findByCriteria(new String[]{null}).length;
+
+        DatabaseRecord[] allRecords = data.readAllRecords(0, 0);
+        System.out.println("Valid records: " + numberOfValidRecords
+                + ", read at once: " + allRecords.length);
+
+        int numberOfPages = 0, numberOfMismatches = 0, recordsRead = 0;
+        long firstRecordNumber = 0;
+        DatabaseRecord[] page;
+
+        do {
+            page = data.readAllRecords(firstRecordNumber, PAGE_SIZE);
+            numberOfPages++;
+
+            for (DatabaseRecord databaseRecord : page) {
+
+                if (databaseRecord.getRecordNumber()
+                        != allRecords[recordsRead++].getRecordNumber()) {
+                    numberOfMismatches++;
+                }
+                firstRecordNumber = databaseRecord.getRecordNumber() + 1;
+            }
+        } while (page.length == PAGE_SIZE);
+
+        System.out.println("Read in " + numberOfPages + " pages of "
+                + PAGE_SIZE + ": " + recordsRead + ", mismatches: "
+                + numberOfMismatches);
+        System.out.println("Hotel rooms from the local DAO: "
+                + new DatabaseAccessDaoLocal().retrieveAllHotelRooms().size());
+    }
+}
@@ -0,0 +1,97 @@
+package suncertify.db;
+
+/**
+ * A simple throughput benchmark for the {@link Data} class. It runs a number of
+ * threads that repeatedly read records, and then repeatedly search the
+ * database, printing the operations per second achieved for each.
+ * <p/>
+ * It is run from the directory containing the {@code suncertify.properties}
+ * file, in the same way as the application.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataReadBenchmark {
+
+    private static final int NUMBER_OF_THREADS = 4;
+    private static final long WARM_UP_MILLISECONDS = 2000;
+    private static final long MEASURE_MILLISECONDS = 5000;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws InterruptedException {
+
+        final long numberOfRecords =
+                DatabaseFileUtils.getInstance().getNumberOfRecordsInDatabase();
+
+        runBenchmark("readRecord", new Operation() {
+            @Override
+            public void perform(long iteration) throws Exception {
+                data.readRecord(iteration % numberOfRecords);
+            }
+        });
+
+        runBenchmark("findByCriteria", new Operation() {
+            @Override
+            public void perform(long iteration) throws Exception {
+                data.findByCriteria(new String[]{"Palace", "Smallville"});
+            }
+        });
+    }
+
+    // ---------- Private Methods ----------
+    private static void runBenchmark(String name, Operation operation)
+            throws InterruptedException {
+
+        runThreads(operation, WARM_UP_MILLISECONDS);
+        long operations = runThreads(operation, MEASURE_MILLISECONDS);
+
+        System.out.println(name + ": "
+                + (operations * 1000 / MEASURE_MILLISECONDS) + " ops/sec ("
+                + NUMBER_OF_THREADS + " threads)");
+    }
+
+    private static long runThreads(final Operation operation,
+                                   long milliseconds)
+            throws InterruptedException {
+
+        final long endTime = System.currentTimeMillis() + milliseconds;
+        final long[] operationCounts = new long[NUMBER_OF_THREADS];
+        Thread[] threads = new Thread[NUMBER_OF_THREADS];
+
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+
+            final int threadIndex = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    long iteration = threadIndex;
+                    while (System.currentTimeMillis() < endTime) {
+                        try {
+                            operation.perform(iteration++);
+                        } catch (Exception ignored) {
+                        }
+                        operationCounts[threadIndex]++;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        long totalOperations = 0;
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            threads[i].join();
+            totalOperations += operationCounts[i];
+        }
+
+        return totalOperations;
+    }
+
+    /**
+     * A single benchmarked operation against the database.
+     */
+    private interface Operation {
+
+        void perform(long iteration) throws Exception;
+    }
+}
@@ -0,0 +1,130 @@
+package suncertify.db;
+
+import java.util.Arrays;
+
+/**
+ * Tests that a record read without a lock is never torn. Writers keep
+ * changing a record between two versions that differ in every field, with
+ * {@code updateRecord} and {@code updateFields}, while readers read it with
+ * {@code readRecord} and {@code readRecords}. Every record read must be one
+ * version or the other, never a mix of the two. The reads, and the torn
+ * records, are printed.
+ * <p/>
+ * The database file named in the {@code suncertify.properties} file is
+ * changed, so it should be run against a copy of the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataTornReadTest {
+
+    private static final long RECORD_NUMBER = 4;
+    private static final int NUMBER_OF_WRITERS = 2;
+    private static final int NUMBER_OF_READERS = 4;
+    private static final long MEASUREMENT_MILLISECONDS = 3000;
+
+    private static final String[] FIRST_VERSION = new String[]{
+            "Torn Read Alpha Hotel", "Alphaville", "1", "Y", "$111.11",
+            "2026/01/01", "11111111"};
+    private static final String[] SECOND_VERSION = new String[]{
+            "Torn Read Bravo Inn With A Longer Name", "Bravo City Heights",
+            "6", "N", "$6666.66", "2027/12/31", "66666666"};
+
+    private static final Data data = new Data();
+
+    private static volatile boolean running = true;
+
+    public static void main(String[] args) throws Exception {
+
+        Thread[] threads = new Thread[NUMBER_OF_WRITERS + NUMBER_OF_READERS];
+        final long[] reads = new long[NUMBER_OF_READERS];
+        final long[] tornReads = new long[NUMBER_OF_READERS];
+
+        for (int i = 0; i < NUMBER_OF_WRITERS; i++) {
+
+            final boolean onlyFields = i % 2 == 1;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (long j = 0; running; j++) {
+                            write(j % 2 == 0 ? FIRST_VERSION : SECOND_VERSION,
+                                    onlyFields);
+                        }
+                    } catch (RecordNotFoundException e) {
+                        e.printStackTrace();
+                    }
+                }
+            };
+        }
+
+        for (int i = 0; i < NUMBER_OF_READERS; i++) {
+
+            final int readerIndex = i;
+            threads[NUMBER_OF_WRITERS + i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        while (running) {
+                            String[] record = readerIndex % 2 == 0
+                                    ? data.readRecord(RECORD_NUMBER)
+                                    : data.readRecords(
+                                    new long[]{RECORD_NUMBER})[0];
+                            reads[readerIndex]++;
+
+                            if (isTorn(record)) {
+                                tornReads[readerIndex]++;
+                                System.out.println("Torn record: "
+                                        + Arrays.toString(record));
+                            }
+                        }
+                    } catch (RecordNotFoundException e) {
+                        e.printStackTrace();
+                    }
+                }
+            };
+        }
+
+        write(FIRST_VERSION, false);
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(MEASUREMENT_MILLISECONDS);
+        running = false;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long totalReads = 0, totalTornReads = 0;
+        for (int i = 0; i < NUMBER_OF_READERS; i++) {
+            totalReads += reads[i];
+            totalTornReads += tornReads[i];
+        }
+
+        System.out.println("Reads: " + totalReads + ", torn: "
+                + totalTornReads);
+    }
+
+    private static void write(String[] version, boolean onlyFields)
+            throws RecordNotFoundException {
+
+        long lockCookie = data.lockRecord(RECORD_NUMBER);
+
+        if (onlyFields) {
+            data.updateFields(RECORD_NUMBER, version, lockCookie);
+        } else {
+            data.updateRecord(RECORD_NUMBER, version, lockCookie);
+        }
+
+        data.unlock(RECORD_NUMBER, lockCookie);
+    }
+
+    private static boolean isTorn(String[] record) {
+
+        String[] fields = new DatabaseRecord(RECORD_NUMBER, record)
+                .getFields();
+
+        return !Arrays.equals(fields, FIRST_VERSION)
+                && !Arrays.equals(fields, SECOND_VERSION);
+    }
+}
@@ -0,0 +1,101 @@
+package suncertify.db;
+
+import java.util.Arrays;
+
+/**
+ * Tests the updates of some of the fields of a record with the {@link Data}
+ * class. Updating the owner and date must leave the other fields as they
+ * were, and updating the name must move the record in the index. Then the
+ * bookings per second of {@code updateRecord} and {@code updateFields} are
+ * printed.
+ * <p/>
+ * The database file named in the {@code suncertify.properties} file is
+ * changed, so it should be run against a copy of the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataUpdateFieldsTest {
+
+    private static final long RECORD_NUMBER = 5;
+    private static final int NAME_FIELD_INDEX = 0;
+    private static final int DATE_FIELD_INDEX = 5;
+    private static final int OWNER_FIELD_INDEX = 6;
+    private static final long MEASUREMENT_MILLISECONDS = 3000;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        String[] before = data.readRecord(RECORD_NUMBER);
+        long lockCookie = data.lockRecord(RECORD_NUMBER);
+
+        String[] booking = new String[before.length];
+        booking[DATE_FIELD_INDEX] = "2026/10/18";
+        booking[OWNER_FIELD_INDEX] = "12345678";
+        data.updateFields(RECORD_NUMBER, booking, lockCookie);
+
+        String[] after = data.readRecord(RECORD_NUMBER);
+        System.out.println("Booked: "
+                + after[OWNER_FIELD_INDEX].trim() + " "
+                + after[DATE_FIELD_INDEX].trim());
+        System.out.println("Other fields unchanged: " + Arrays.equals(
+                Arrays.copyOf(before, DATE_FIELD_INDEX),
+                Arrays.copyOf(after, DATE_FIELD_INDEX)));
+
+        String[] rename = new String[before.length];
+        rename[NAME_FIELD_INDEX] = "Renamed";
+        data.updateFields(RECORD_NUMBER, rename, lockCookie);
+        System.out.println("Found by the new name: " + Arrays.toString(
+                data.findByCriteria(new String[]{"Renamed"})));
+        System.out.println("Found by the old name: " + Arrays.asList(
+                toObjects(data.findByCriteria(new String[]{
+                        before[NAME_FIELD_INDEX].trim()})))
+                .contains(RECORD_NUMBER));
+
+        data.unlock(RECORD_NUMBER, lockCookie);
+
+        measure("updateRecord", false);
+        measure("updateFields", true);
+    }
+
+    private static void measure(String name, boolean onlyFields)
+            throws RecordNotFoundException {
+
+        String[] record = data.readRecord(RECORD_NUMBER);
+        String[] booking = new String[record.length];
+        long bookings = 0;
+        long endTime = System.currentTimeMillis() + MEASUREMENT_MILLISECONDS;
+
+        while (System.currentTimeMillis() < endTime) {
+
+            String owner = String.valueOf(10000000 + bookings % 1000);
+            long lockCookie = data.lockRecord(RECORD_NUMBER);
+
+            if (onlyFields) {
+                booking[OWNER_FIELD_INDEX] = owner;
+                data.updateFields(RECORD_NUMBER, booking, lockCookie);
+            } else {
+                record[OWNER_FIELD_INDEX] = owner;
+                data.updateRecord(RECORD_NUMBER, record, lockCookie);
+            }
+
+            data.unlock(RECORD_NUMBER, lockCookie);
+            bookings++;
+        }
+
+        System.out.println(name + ": "
+                + (bookings * 1000 / MEASUREMENT_MILLISECONDS)
+                + " bookings/sec");
+    }
+
+    private static Long[] toObjects(long[] recordNumbers) {
+
+        Long[] objects = new Long[recordNumbers.length];
+        for (int i = 0; i < recordNumbers.length; i++) {
+            objects[i] = recordNumbers[i];
+        }
+
+        return objects;
+    }
+}
@@ -0,0 +1,89 @@
+package suncertify.db;
+
+/**
+ * Tests that the name and location of a record stay its unique key after
+ * another record is updated to them and then updated again, with each of
+ * {@code updateRecord}, {@code updateFields} and {@code updateIfVersion}.
+ * Creating a record with that name and location must then fail, until the
+ * record that has them is deleted.
+ * <p/>
+ * The database file named in the {@code suncertify.properties} file is
+ * changed, so it should be run against a copy of the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataUpdateKeyTest {
+
+    private static final long RECORD_NUMBER = 0;
+    private static final int NAME_FIELD_INDEX = 0;
+    private static final int LOCATION_FIELD_INDEX = 1;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        String[] record = data.readRecord(RECORD_NUMBER);
+
+        for (int i = 1; i <= 3; i++) {
+
+            String[] collidingRecord = data.readRecord(i);
+            collidingRecord[NAME_FIELD_INDEX] = record[NAME_FIELD_INDEX];
+            collidingRecord[LOCATION_FIELD_INDEX] =
+                    record[LOCATION_FIELD_INDEX];
+            update(i, collidingRecord);
+
+            String[] movedRecord = collidingRecord.clone();
+            movedRecord[NAME_FIELD_INDEX] = "Moved " + i;
+            update(i, movedRecord);
+
+            System.out.println(updateName(i) + " to the key of record "
+                    + RECORD_NUMBER + " and away again, create with the"
+                    + " key: " + tryCreateRecord(record));
+        }
+
+        data.deleteRecord(RECORD_NUMBER, data.lockRecord(RECORD_NUMBER));
+        System.out.println("Record " + RECORD_NUMBER
+                + " deleted, create with its key: " + tryCreateRecord(record));
+    }
+
+    private static void update(long recordNumber, String[] updatedRecord)
+            throws RecordNotFoundException {
+
+        if (recordNumber == 1) {
+            long lockCookie = data.lockRecord(recordNumber);
+            data.updateRecord(recordNumber, updatedRecord, lockCookie);
+            data.unlock(recordNumber, lockCookie);
+
+        } else if (recordNumber == 2) {
+            String[] fields = new String[updatedRecord.length];
+            fields[NAME_FIELD_INDEX] = updatedRecord[NAME_FIELD_INDEX];
+            fields[LOCATION_FIELD_INDEX] = updatedRecord[LOCATION_FIELD_INDEX];
+            long lockCookie = data.lockRecord(recordNumber);
+            data.updateFields(recordNumber, fields, lockCookie);
+            data.unlock(recordNumber, lockCookie);
+
+        } else {
+            data.updateIfVersion(recordNumber,
+                    data.getRecordVersion(recordNumber), updatedRecord);
+        }
+    }
+
+    private static String updateName(long recordNumber) {
+
+        return recordNumber == 1
+                ? "updateRecord"
+                : recordNumber == 2 ? "updateFields" : "updateIfVersion";
+    }
+
+    private static String tryCreateRecord(String[] record) {
+
+        try {
+            return "created record " + data.createRecord(record);
+        } catch (DuplicateKeyException e) {
+            return "DuplicateKeyException for "
+                    + record[NAME_FIELD_INDEX].trim() + ", "
+                    + record[LOCATION_FIELD_INDEX].trim();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package suncertify.db;
+
+/**
+ * Tests the checks of record numbers by the {@link Data} class, now that they
+ * are answered from memory. A deleted record must not be locked or read, a
+ * new record written in its place must be, and record numbers past the end of
+ * the database file, or in a new word of the bitmap, must be handled.
+ * <p/>
+ * The database file named in the {@code suncertify.properties} file is
+ * changed, so it should be run against a copy of the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataValidRecordTest {
+
+    private static final long RECORD_NUMBER = 3;
+    private static final int NUMBER_OF_NEW_RECORDS = 100;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        String[] record = data.readRecord(RECORD_NUMBER);
+        long lockCookie = data.lockRecord(RECORD_NUMBER);
+        data.deleteRecord(RECORD_NUMBER, lockCookie);
+
+        System.out.println("Lock a deleted record: "
+                + tryToLock(RECORD_NUMBER));
+        System.out.println("Read a deleted record: "
+                + tryToRead(RECORD_NUMBER));
+
+        long newRecordNumber = data.createRecord(record);
+        System.out.println("New record written in its place: "
+                + (newRecordNumber == RECORD_NUMBER));
+        System.out.println("Lock the new record: "
+                + tryToLock(newRecordNumber));
+
+        long lastRecordNumber = 0;
+        for (int i = 0; i < NUMBER_OF_NEW_RECORDS; i++) {
+            lastRecordNumber = data.createRecord(new String[]{
+                    "Hotel " + i, "Town", "2", "N", "$90.00", "", ""});
+        }
+        System.out.println("Lock the last of " + NUMBER_OF_NEW_RECORDS
+                + " new records, " + lastRecordNumber + ": "
+                + tryToLock(lastRecordNumber));
+        System.out.println("Lock past the end: "
+                + tryToLock(lastRecordNumber + 1));
+        System.out.println("Lock a negative record number: " + tryToLock(-1));
+    }
+
+    private static String tryToLock(long recordNumber) {
+
+        try {
+            data.unlock(recordNumber, data.lockRecord(recordNumber));
+            return "locked";
+        } catch (RecordNotFoundException e) {
+            return "not found";
+        }
+    }
+
+    private static String tryToRead(long recordNumber) {
+
+        try {
+            data.readRecord(recordNumber);
+            return "read";
+        } catch (RecordNotFoundException e) {
+            return "not found";
+        }
+    }
+}
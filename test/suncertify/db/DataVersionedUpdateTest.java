@@ -0,0 +1,116 @@
+package suncertify.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests the versioned updates of the {@link Data} class. A stale version and
+ * a locked record must be refused. Then threads count up in the owner field
+ * of one record, some with versioned updates that are retried on a conflict,
+ * and some with lock, update and unlock, and the count must come out right.
+ * The conflicts, and the time taken, are printed.
+ * <p/>
+ * The database file named in the {@code suncertify.properties} file is
+ * changed, so it should be run against a copy of the database.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DataVersionedUpdateTest {
+
+    private static final long RECORD_NUMBER = 5;
+    private static final int OWNER_FIELD_INDEX = 6;
+    private static final int NUMBER_OF_VERSIONED_THREADS = 4;
+    private static final int NUMBER_OF_LOCKING_THREADS = 4;
+    private static final int INCREMENTS_PER_THREAD = 2000;
+
+    private static final Data data = new Data();
+    private static final AtomicLong conflicts = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+
+        long version = data.getRecordVersion(RECORD_NUMBER);
+        String[] record = data.readRecord(RECORD_NUMBER);
+        record[OWNER_FIELD_INDEX] = "0";
+        System.out.println("Update with the version: "
+                + data.updateIfVersion(RECORD_NUMBER, version, record));
+        System.out.println("Update with the stale version: "
+                + data.updateIfVersion(RECORD_NUMBER, version, record));
+
+        long lockCookie = data.lockRecord(RECORD_NUMBER);
+        System.out.println("Update of a locked record: "
+                + data.updateIfVersion(RECORD_NUMBER,
+                data.getRecordVersion(RECORD_NUMBER), record));
+        data.unlock(RECORD_NUMBER, lockCookie);
+
+        Thread[] threads = new Thread[
+                NUMBER_OF_VERSIONED_THREADS + NUMBER_OF_LOCKING_THREADS];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = i < NUMBER_OF_VERSIONED_THREADS
+                    ? new VersionedIncrementThread()
+                    : new LockingIncrementThread();
+        }
+
+        long startTime = System.currentTimeMillis();
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+        long elapsedTime = System.currentTimeMillis() - startTime;
+
+        System.out.println("Count: "
+                + readCount() + ", expected: "
+                + (threads.length * INCREMENTS_PER_THREAD) + ", conflicts: "
+                + conflicts.get() + ", in " + elapsedTime + " ms");
+    }
+
+    private static long readCount() throws RecordNotFoundException {
+        return Long.parseLong(
+                data.readRecord(RECORD_NUMBER)[OWNER_FIELD_INDEX].trim());
+    }
+
+    private static String[] incremented(String[] record) {
+
+        record[OWNER_FIELD_INDEX] = String.valueOf(
+                Long.parseLong(record[OWNER_FIELD_INDEX].trim()) + 1);
+
+        return record;
+    }
+
+    private static class VersionedIncrementThread extends Thread {
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+
+                    long version = data.getRecordVersion(RECORD_NUMBER);
+                    while (!data.updateIfVersion(RECORD_NUMBER, version,
+                            incremented(data.readRecord(RECORD_NUMBER)))) {
+
+                        conflicts.incrementAndGet();
+                        version = data.getRecordVersion(RECORD_NUMBER);
+                    }
+                }
+            } catch (RecordNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private static class LockingIncrementThread extends Thread {
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+
+                    long lockCookie = data.lockRecord(RECORD_NUMBER);
+                    data.updateRecord(RECORD_NUMBER,
+                            incremented(data.readRecord(RECORD_NUMBER)),
+                            lockCookie);
+                    data.unlock(RECORD_NUMBER, lockCookie);
+                }
+            } catch (RecordNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
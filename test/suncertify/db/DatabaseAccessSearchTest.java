@@ -0,0 +1,104 @@
+package suncertify.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Tests that a search answered by the name and location prefix indexes finds
+ * the same records as a scan of the database file. The criteria are prefixes
+ * of every hotel name and location in the database, in upper, lower and mixed
+ * case, alone and together, and some that are not ASCII. The default locale
+ * is set to Turkish, where the upper case {@code I} does not lower case to
+ * {@code i}, so the indexes must not depend on the locale.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseAccessSearchTest {
+
+    private static final String[] NOT_ASCII_CRITERIA =
+            new String[]{"\u212Aastle", "\u0130nn", "Pal\u00e1ce",
+                    "\u00e9"};
+
+    public static void main(String[] args) throws Exception {
+
+        Locale.setDefault(new Locale("tr", "TR"));
+
+        Data data = new Data();
+        Set<String> names = new TreeSet<>();
+        Set<String> locations = new TreeSet<>();
+
+        for (long recordNumber : data.findByCriteria(new String[]{null})) {
+            String[] record = data.readRecord(recordNumber);
+            names.add(record[DatabaseAccessIndexManager.NAME_FIELD_INDEX]
+                    .trim());
+            locations.add(
+                    record[DatabaseAccessIndexManager.LOCATION_FIELD_INDEX]
+                            .trim());
+        }
+
+        List<String> namePrefixes = prefixesOf(names);
+        List<String> locationPrefixes = prefixesOf(locations);
+        List<String[]> criteria = new ArrayList<>();
+
+        for (String namePrefix : namePrefixes) {
+            criteria.add(new String[]{namePrefix, null});
+        }
+        for (String locationPrefix : locationPrefixes) {
+            criteria.add(new String[]{"", locationPrefix});
+        }
+        for (int i = 0; i < namePrefixes.size(); i += 3) {
+            for (int j = 0; j < locationPrefixes.size(); j += 3) {
+                criteria.add(new String[]{namePrefixes.get(i),
+                        locationPrefixes.get(j)});
+            }
+        }
+        for (String notAsciiCriterion : NOT_ASCII_CRITERIA) {
+            criteria.add(new String[]{notAsciiCriterion, null});
+            criteria.add(new String[]{null, notAsciiCriterion});
+        }
+
+        int mismatches = 0;
+
+        for (String[] criterion : criteria) {
+
+            long[] found = data.findByCriteria(criterion);
+            long[] scanned = DatabaseAccessSearch.scanDatabaseFile(criterion);
+
+            if (!Arrays.equals(found, scanned)) {
+                System.out.println("Mismatch for "
+                        + Arrays.toString(criterion) + ": found "
+                        + Arrays.toString(found) + ", scanned "
+                        + Arrays.toString(scanned));
+                mismatches++;
+            }
+        }
+
+        System.out.println("Criteria checked: " + criteria.size()
+                + ", mismatches: " + mismatches);
+    }
+
+    private static List<String> prefixesOf(Set<String> fieldValues) {
+
+        List<String> prefixes = new ArrayList<>();
+
+        for (String fieldValue : fieldValues) {
+
+            String prefix = fieldValue.substring(0,
+                    Math.min(3, fieldValue.length()));
+            prefixes.add(prefix);
+            prefixes.add(fieldValue);
+            prefixes.add(fieldValue.toUpperCase(Locale.ROOT));
+            prefixes.add(prefix.toLowerCase(Locale.ROOT));
+        }
+
+        return prefixes;
+    }
+}
@@ -0,0 +1,63 @@
+package suncertify.db;
+
+/**
+ * Tests that a thread interrupted while it reads the database file, as an RMI
+ * thread or a GUI worker can be, does not stop the other threads reading it.
+ * The interrupt closes the channel to the database file for every thread, so
+ * the channel must be opened again. The interrupted thread's read is checked
+ * to finish and keep its interrupt, and the records are read again after it.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file, when it is read through its channel.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseFileChannelStorageTest {
+
+    private static final int NUMBER_OF_INTERRUPTED_READS = 10;
+    private static final long RECORD_NUMBER = 1;
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        final int[] interruptedReads = new int[1];
+        final boolean[] interruptKept = new boolean[]{true};
+
+        Thread interruptedReader = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < NUMBER_OF_INTERRUPTED_READS; i++) {
+                    interrupt();
+                    try {
+                        data.readRecord(RECORD_NUMBER);
+                        interruptedReads[0]++;
+                    } catch (RecordNotFoundException e) {
+                        e.printStackTrace();
+                    }
+                    interruptKept[0] &= Thread.interrupted();
+                }
+            }
+        };
+        interruptedReader.start();
+        interruptedReader.join();
+
+        int failedReads = 0;
+        long[] recordNumbers = data.findByCriteria(new String[]{null});
+
+        for (long recordNumber : recordNumbers) {
+            try {
+                data.readRecord(recordNumber);
+            } catch (RecordNotFoundException e) {
+                failedReads++;
+            }
+        }
+
+        System.out.println("Interrupted reads: " + interruptedReads[0] + " of "
+                + NUMBER_OF_INTERRUPTED_READS + ", interrupt kept: "
+                + interruptKept[0]);
+        System.out.println("Reads after the interrupts: "
+                + recordNumbers.length + ", failed: " + failedReads);
+    }
+}
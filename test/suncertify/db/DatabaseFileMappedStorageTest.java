@@ -0,0 +1,113 @@
+package suncertify.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Tests appending many records to a {@link DatabaseFileMappedStorage}. The
+ * file must only be remapped a few times, the size must be the end of the
+ * records written, and the spare records past it must be flagged as deleted
+ * until the storage is closed, which cuts them off the file. A file that was
+ * not closed must have them cut off when it is opened.
+ * <p/>
+ * A copy of the {@code db-1x1.db} file in the working directory is used, so
+ * the database is not changed. The position of the first record is read from
+ * the database file named in the {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseFileMappedStorageTest {
+
+    private static final int NUMBER_OF_RECORDS = 100000;
+
+    public static void main(String[] args) throws IOException {
+
+        File databaseFile = File.createTempFile("mapped-storage", ".db");
+        databaseFile.deleteOnExit();
+        Files.copy(Paths.get("db-1x1.db"), databaseFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        RandomAccessFile randomAccessFile =
+                new RandomAccessFile(databaseFile, "rw");
+        DatabaseFileMappedStorage storage =
+                new DatabaseFileMappedStorage(randomAccessFile.getChannel());
+        long initialSize = storage.size();
+
+        ByteBuffer record =
+                ByteBuffer.allocate(DatabaseFileSchema.RECORD_LENGTH);
+        for (int i = 0; i < NUMBER_OF_RECORDS; i++) {
+            record.clear();
+            storage.write(record, storage.size());
+        }
+
+        long expectedSize = initialSize
+                + (long) NUMBER_OF_RECORDS * DatabaseFileSchema.RECORD_LENGTH;
+        System.out.println("Size: " + storage.size() + ", expected: "
+                + expectedSize + ", mappings of the file: "
+                + countMappings(databaseFile.toPath()));
+
+        long fileLength = databaseFile.length();
+        int spareRecordsNotDeleted = 0;
+        ByteBuffer flag = ByteBuffer.allocate(1);
+        for (long position = expectedSize; position < fileLength;
+             position += DatabaseFileSchema.RECORD_LENGTH) {
+            flag.clear();
+            randomAccessFile.getChannel().read(flag, position);
+            if (flag.get(0) != DatabaseFileSchema.INVALID_RECORD_FLAG) {
+                spareRecordsNotDeleted++;
+            }
+        }
+        System.out.println("Spare records: "
+                + (fileLength - expectedSize)
+                / DatabaseFileSchema.RECORD_LENGTH
+                + ", not flagged as deleted: " + spareRecordsNotDeleted);
+
+        // A copy of the file as it is now is the file the application leaves
+        // if it stops without closing it.
+        File unclosedDatabaseFile =
+                File.createTempFile("unclosed-mapped-storage", ".db");
+        unclosedDatabaseFile.deleteOnExit();
+        Files.copy(databaseFile.toPath(), unclosedDatabaseFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        RandomAccessFile unclosedRandomAccessFile =
+                new RandomAccessFile(unclosedDatabaseFile, "rw");
+        DatabaseFileMappedStorage reopenedStorage =
+                new DatabaseFileMappedStorage(
+                        unclosedRandomAccessFile.getChannel());
+        reopenedStorage.cutSpareRecords(
+                DatabaseFileUtils.getInstance().getHeaderOffset());
+        System.out.println("File length when an unclosed file is opened: "
+                + unclosedDatabaseFile.length() + ", size: "
+                + reopenedStorage.size() + ", expected: " + expectedSize);
+        reopenedStorage.close();
+
+        storage.close();
+        System.out.println("File length after closing: "
+                + databaseFile.length() + ", expected: " + expectedSize);
+    }
+
+    // The number of mappings of the file, on systems that list them.
+    private static int countMappings(Path file) throws IOException {
+
+        Path mapsFile = Paths.get("/proc/self/maps");
+        if (!Files.exists(mapsFile)) return -1;
+
+        List<String> mappings =
+                Files.readAllLines(mapsFile, Charset.forName("US-ASCII"));
+        int numberOfMappings = 0;
+        for (String mapping : mappings) {
+            if (mapping.endsWith(file.toString())) numberOfMappings++;
+        }
+
+        return numberOfMappings;
+    }
+}
@@ -0,0 +1,59 @@
+package suncertify.db;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests that threads getting the {@link DatabaseFileUtils} instance at the
+ * same time, as the first clients of a server do, all get the same instance.
+ * There must be one instance, so one count of the records, and the field names
+ * and lengths must only be read from the header once. The results are printed.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseFileUtilsTest {
+
+    private static final int NUMBER_OF_THREADS = 16;
+
+    public static void main(String[] args) throws Exception {
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final Set<DatabaseFileUtils> instances = Collections.synchronizedSet(
+                Collections.newSetFromMap(
+                        new IdentityHashMap<DatabaseFileUtils, Boolean>()));
+        Thread[] threads = new Thread[NUMBER_OF_THREADS];
+
+        for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        instances.add(DatabaseFileUtils.getInstance());
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        System.out.println("Instances: " + instances.size()
+                + ", fields: " + DatabaseFileUtils.getInstance()
+                .getNumberOfFields()
+                + ", field names read: "
+                + DatabaseFileSchema.databaseFieldNames.size());
+    }
+}
@@ -0,0 +1,166 @@
+package suncertify.db;
+
+import suncertify.utilities.UrlyBirdApplicationConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A benchmark of the {@link DatabaseRecordCodec} against the record encoding
+ * and decoding it replaced, a {@code String.substring} per field on the way
+ * in and a {@code DataOutputStream} on the way out. Each is run on one thread,
+ * after a warm up, and the operations per second are printed.
+ * <p/>
+ * The field lengths are read from the header of the database file named in
+ * the {@code suncertify.properties} file, it is not changed.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseRecordCodecBenchmark {
+
+    private static final long WARM_UP_MILLISECONDS = 2000;
+    private static final long MEASUREMENT_MILLISECONDS = 3000;
+
+    private static final String[] RECORD = new String[]{
+            "Palace", "Smallville", "2", "Y", "$150.00", "2005/07/27", ""};
+
+    // Consumes the results, so that the work is not optimised away.
+    private static long sink;
+
+    public static void main(String[] args) {
+
+        final DatabaseRecordCodec databaseRecordCodec =
+                DatabaseRecordCodec.getInstance();
+        final ByteBuffer encodedRecord = ByteBuffer.allocate(
+                DatabaseFileSchema.RECORD_LENGTH);
+        encodedRecord.put(databaseRecordCodec.encodeRecord(RECORD));
+        final byte[] recordBytes = encodedRecord.array();
+
+        run("decode, substring", new Operation() {
+            @Override
+            public void execute() throws IOException {
+                sink += substringDecode(recordBytes).length;
+            }
+        });
+        run("decode, codec", new Operation() {
+            @Override
+            public void execute() {
+                sink += databaseRecordCodec.decodeRecord(encodedRecord).length;
+            }
+        });
+        run("encode, DataOutputStream", new Operation() {
+            @Override
+            public void execute() {
+                ByteBuffer recordBuffer =
+                        ByteBuffer.allocate(DatabaseFileSchema.RECORD_LENGTH);
+                recordBuffer.put(DatabaseFileSchema.VALID_RECORD_FLAG);
+                recordBuffer.put(dataOutputStreamEncode(RECORD));
+                recordBuffer.flip();
+                sink += recordBuffer.remaining();
+            }
+        });
+        run("encode, codec", new Operation() {
+            @Override
+            public void execute() {
+                sink += databaseRecordCodec.encodeRecord(RECORD).remaining();
+            }
+        });
+
+        System.out.println("(" + sink + ")");
+    }
+
+    private static void run(String name, Operation operation) {
+
+        try {
+            execute(operation, WARM_UP_MILLISECONDS);
+            long operations = execute(operation, MEASUREMENT_MILLISECONDS);
+
+            System.out.println(name + ": "
+                    + (operations * 1000 / MEASUREMENT_MILLISECONDS)
+                    + " ops/sec");
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static long execute(Operation operation, long milliseconds)
+            throws IOException {
+
+        long operations = 0;
+        long endTime = System.currentTimeMillis() + milliseconds;
+
+        while (System.currentTimeMillis() < endTime) {
+            for (int i = 0; i < 1000; i++) {
+                operation.execute();
+            }
+            operations += 1000;
+        }
+
+        return operations;
+    }
+
+    // ---------- The previous implementation ----------
+    private static String[] substringDecode(byte[] recordBytes)
+            throws IOException {
+
+        String record = new String(recordBytes,
+                UrlyBirdApplicationConstants.FILE_ENCODING);
+        int numberOfFields =
+                DatabaseFileUtils.getInstance().getNumberOfFields();
+        String[] strings = new String[numberOfFields];
+        int flagIndentation = 1;
+
+        for (int i = 0; i < numberOfFields; i++) {
+
+            int fieldLength = DatabaseFileSchema.databaseFieldLengths.get(i);
+            strings[i] = record.substring(flagIndentation,
+                    flagIndentation + fieldLength);
+            flagIndentation = flagIndentation + fieldLength;
+        }
+
+        return strings;
+    }
+
+    private static byte[] dataOutputStreamEncode(String[] strings) {
+
+        ByteArrayOutputStream byteArrayOutputStream =
+                new ByteArrayOutputStream();
+        DataOutputStream dataOutputStream =
+                new DataOutputStream(byteArrayOutputStream);
+
+        try {
+            for (int i = 0, j = 0, k = 0;
+                 i < DatabaseFileUtils.getInstance().getNumberOfFields(); i++) {
+
+                int fieldLength =
+                        DatabaseFileSchema.databaseFieldLengths.get(i);
+                byte[] bytes = new byte[fieldLength];
+
+                for (byte b : strings[i].getBytes()) {
+                    bytes[j++] = b;
+                }
+
+                while (k < fieldLength) {
+                    dataOutputStream.write(bytes[k++]);
+                }
+                j = 0;
+                k = 0;
+            }
+
+            dataOutputStream.flush();
+            dataOutputStream.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private interface Operation {
+        void execute() throws IOException;
+    }
+}
@@ -0,0 +1,117 @@
+package suncertify.db;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Tests the compact form that a {@link DatabaseRecord} is sent over RMI in.
+ * Every record in the database, and records with fields that can not be
+ * written as numbers, must be read back without change. Then the bytes per
+ * room are printed, of all the records serialized as they were sent before,
+ * padded string arrays, and in the compact form.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseRecordWireFormatTest {
+
+    private static final String[][] UNUSUAL_RECORDS = new String[][]{
+            {"H\u00f4tel", "Z\u00fcrich", "007", "y", "$150.5", "2005/7/27",
+                    ""},
+            {"Palace", "Smallville", "-2", "", "150.00", "", null},
+            {"", "", "99999999999", "N", "$0.00", "0001/01/01", "12345678"},
+            {"Palace", "Smallville", "2", "Y", "\u20ac150.00", "27/07/2005"}};
+
+    private static final Data data = new Data();
+
+    public static void main(String[] args) throws Exception {
+
+        DatabaseRecord[] databaseRecords = data.readAllRecords(0, 0);
+        int mismatches = countMismatches(databaseRecords);
+
+        DatabaseRecord[] unusualRecords =
+                new DatabaseRecord[UNUSUAL_RECORDS.length];
+        for (int i = 0; i < UNUSUAL_RECORDS.length; i++) {
+            unusualRecords[i] = new DatabaseRecord(i, UNUSUAL_RECORDS[i]);
+        }
+        mismatches += countMismatches(unusualRecords);
+
+        System.out.println("Records checked: "
+                + (databaseRecords.length + unusualRecords.length)
+                + ", mismatches: " + mismatches);
+
+        PaddedRecord[] paddedRecords =
+                new PaddedRecord[databaseRecords.length];
+        for (int i = 0; i < databaseRecords.length; i++) {
+            long recordNumber = databaseRecords[i].getRecordNumber();
+            paddedRecords[i] = new PaddedRecord(recordNumber,
+                    data.readRecord(recordNumber));
+        }
+
+        System.out.println("Bytes per room, padded string arrays: "
+                + serialize(paddedRecords).length / paddedRecords.length
+                + ", compact: "
+                + serialize(databaseRecords).length / databaseRecords.length
+                + " (" + databaseRecords.length + " rooms)");
+    }
+
+    private static int countMismatches(DatabaseRecord[] databaseRecords)
+            throws IOException, ClassNotFoundException {
+
+        ObjectInputStream objectInputStream = new ObjectInputStream(
+                new ByteArrayInputStream(serialize(databaseRecords)));
+        DatabaseRecord[] readRecords =
+                (DatabaseRecord[]) objectInputStream.readObject();
+        int mismatches = 0;
+
+        for (int i = 0; i < databaseRecords.length; i++) {
+
+            if (readRecords[i].getRecordNumber()
+                    != databaseRecords[i].getRecordNumber()
+                    || !Arrays.equals(readRecords[i].getFields(),
+                    databaseRecords[i].getFields())) {
+
+                System.out.println("Mismatch: "
+                        + Arrays.toString(databaseRecords[i].getFields())
+                        + " read back as "
+                        + Arrays.toString(readRecords[i].getFields()));
+                mismatches++;
+            }
+        }
+
+        return mismatches;
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+
+        ByteArrayOutputStream byteArrayOutputStream =
+                new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream =
+                new ObjectOutputStream(byteArrayOutputStream);
+        objectOutputStream.writeObject(object);
+        objectOutputStream.close();
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    // A record as it was sent before, with the padding of the database file.
+    private static class PaddedRecord implements Serializable {
+
+        private final long recordNumber;
+        private final String[] fields;
+
+        PaddedRecord(long recordNumber, String[] fields) {
+
+            this.recordNumber = recordNumber;
+            this.fields = fields;
+        }
+    }
+}
@@ -96,7 +96,7 @@ public class LockingManagerTest {
                  * finally block, but you can customize this code according to
                  * your reality
                  */
-                //long cookie = data.lockRecord(recNo);
+                long cookie = data.lockRecord(recNo);
                 System.out.println(Thread.currentThread().getId()
                         + " trying to update record #" + recNo
                         + " on UpdatingRandomRecordThread");
@@ -111,11 +111,11 @@ public class LockingManagerTest {
                  * data.update(recNo, new String[] {"Palace", "Smallville", "2",
                  * "Y", "$150.00", "2005/07/27", null});
                  */
-                data.updateRecord(recNo, room.toStringArray(), Thread.currentThread().getId());
+                data.updateRecord(recNo, room.toStringArray(), cookie);
                 System.out.println(Thread.currentThread().getId()
                         + " trying to unlock record #" + recNo
                         + " on UpdatingRandomRecordThread");
-                //data.unlock(recNo, cookie);
+                data.unlock(recNo, cookie);
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -139,11 +139,11 @@ public class LockingManagerTest {
                 System.out.println(Thread.currentThread().getId()
                         + " trying to lock record #1 on"
                         + " UpdatingRecord1Thread");
-                //long cookie = data.lockRecord(1);
+                long cookie = data.lockRecord(1);
                 System.out.println(Thread.currentThread().getId()
                         + " trying to update record #1 on"
                         + " UpdatingRecord1Thread");
-                data.updateRecord(1, room.toStringArray(), Thread.currentThread().getId());
+                data.updateRecord(1, room.toStringArray(), cookie);
                 System.out.println(Thread.currentThread().getId()
                         + " trying to unlock record #1 on"
                         + "UpdatingRecord1Thread");
@@ -153,7 +153,7 @@ public class LockingManagerTest {
                  * commented, and the other Threads, waiting to update/delete
                  * record #1 will wait forever and the deadlock will occur
                  */
-                //data.unlock(1, cookie);
+                data.unlock(1, cookie);
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -189,14 +189,15 @@ public class LockingManagerTest {
                 System.out.println(Thread.currentThread().getId()
                         + " trying to lock record #1 on "
                         + "DeletingRecord1Thread");
-                //long cookie = data.lockRecord(1);
+                long cookie = data.lockRecord(1);
                 System.out.println(Thread.currentThread().getId()
                         + " trying to delete record #1 on "
                         + "DeletingRecord1Thread");
-                data.deleteRecord(1, Thread.currentThread().getId());
+                data.deleteRecord(1, cookie);
                 System.out.println(Thread.currentThread().getId()
                         + " trying to unlock record #1 on "
                         + "DeletingRecord1Thread");
+                // Deleting the record releases its lock.
                 //data.unlock(1, cookie);
             } catch (Exception e) {
                 e.printStackTrace();
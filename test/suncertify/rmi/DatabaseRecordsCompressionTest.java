@@ -0,0 +1,99 @@
+package suncertify.rmi;
+
+import suncertify.db.Data;
+import suncertify.db.DatabaseRecord;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+/**
+ * Tests the compression of the records the RMI server sends back. The records
+ * of the database, and a table of many rooms made from them, are sent as
+ * {@link DatabaseRecords} and as an array of records, and must be read back
+ * without change. The bytes sent each way, the time to write and read them,
+ * and the time to send them over a slow link are printed.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class DatabaseRecordsCompressionTest {
+
+    private static final int NUMBER_OF_ROOMS = 1000;
+    private static final int SLOW_LINK_BITS_PER_SECOND = 256000;
+    private static final int REPETITIONS = 200;
+
+    public static void main(String[] args) throws Exception {
+
+        DatabaseRecord[] databaseRecords = new Data().readAllRecords(0, 0);
+        DatabaseRecord[] manyRecords = new DatabaseRecord[NUMBER_OF_ROOMS];
+
+        for (int i = 0; i < NUMBER_OF_ROOMS; i++) {
+            manyRecords[i] = new DatabaseRecord(i,
+                    databaseRecords[i % databaseRecords.length].getFields());
+        }
+
+        compare("database", databaseRecords);
+        compare(NUMBER_OF_ROOMS + " rooms", manyRecords);
+    }
+
+    private static void compare(String name, DatabaseRecord[] records)
+            throws IOException, ClassNotFoundException {
+
+        byte[] arrayBytes = serialize(records);
+        byte[] recordsBytes = serialize(new DatabaseRecords(records));
+
+        DatabaseRecord[] readRecords =
+                ((DatabaseRecords) deserialize(recordsBytes)).getRecords();
+        boolean sameRecords = readRecords.length == records.length;
+        for (int i = 0; sameRecords && i < records.length; i++) {
+            sameRecords = readRecords[i].getRecordNumber()
+                    == records[i].getRecordNumber()
+                    && Arrays.equals(readRecords[i].getFields(),
+                    records[i].getFields());
+        }
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            deserialize(serialize(new DatabaseRecords(records)));
+        }
+        long microseconds =
+                (System.nanoTime() - startTime) / 1000 / REPETITIONS;
+
+        System.out.println(name + ": same records: " + sameRecords
+                + ", bytes as an array: " + arrayBytes.length
+                + " (" + slowLinkMilliseconds(arrayBytes) + " ms)"
+                + ", as DatabaseRecords: " + recordsBytes.length
+                + " (" + slowLinkMilliseconds(recordsBytes) + " ms)"
+                + ", written and read in " + microseconds + " us");
+    }
+
+    private static long slowLinkMilliseconds(byte[] bytes) {
+        return bytes.length * 8L * 1000 / SLOW_LINK_BITS_PER_SECOND;
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+
+        ByteArrayOutputStream byteArrayOutputStream =
+                new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream =
+                new ObjectOutputStream(byteArrayOutputStream);
+        objectOutputStream.writeObject(object);
+        objectOutputStream.close();
+
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes)
+            throws IOException, ClassNotFoundException {
+
+        return new ObjectInputStream(new ByteArrayInputStream(bytes))
+                .readObject();
+    }
+}
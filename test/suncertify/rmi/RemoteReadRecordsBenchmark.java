@@ -0,0 +1,121 @@
+package suncertify.rmi;
+
+import suncertify.db.DatabaseRecord;
+
+import java.util.Arrays;
+
+/**
+ * A benchmark of reading the records that match a search over RMI, with a
+ * {@code readRecord} call for each record, with one {@code readRecords} call,
+ * and with the search and the reads in one {@code findAndRead} call. The
+ * search matches every record, so reading all the records in one
+ * {@code readAllRecords} call is measured too. The RMI server is started in
+ * this process, on the host and port in the {@code suncertify.properties}
+ * file, so the time is mostly the cost of the calls, without the latency of a
+ * network. The records read both ways, and the searches per second, are
+ * compared.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class RemoteReadRecordsBenchmark {
+
+    private static final long WARM_UP_MILLISECONDS = 2000;
+    private static final long MEASUREMENT_MILLISECONDS = 3000;
+
+    public static void main(String[] args) throws Exception {
+
+        RmiServerManager.startRmiServer();
+        final DatabaseAccessRemote databaseAccessRemote =
+                RmiClientManager.connectToRemoteServerViaRmi();
+        final long[] recordNumbers =
+                databaseAccessRemote.findByCriteria(new String[]{null});
+
+        String[][] records = databaseAccessRemote.readRecords(recordNumbers);
+        boolean sameRecords = true;
+        for (int i = 0; i < recordNumbers.length; i++) {
+            sameRecords &= Arrays.equals(records[i],
+                    databaseAccessRemote.readRecord(recordNumbers[i]));
+        }
+        DatabaseRecord[] databaseRecords = databaseAccessRemote
+                .findAndRead(new String[]{null}).getRecords();
+        sameRecords &= databaseRecords.length == recordNumbers.length;
+        for (int i = 0; i < databaseRecords.length; i++) {
+            sameRecords &= databaseRecords[i].getRecordNumber()
+                    == recordNumbers[i]
+                    && Arrays.equals(databaseRecords[i].getFields(),
+                    new DatabaseRecord(recordNumbers[i], records[i])
+                            .getFields());
+        }
+        System.out.println("Same records every way: " + sameRecords);
+        System.out.println("Record past the end: " + databaseAccessRemote
+                .readRecords(new long[]{Long.MAX_VALUE})[0]);
+
+        run("findByCriteria + readRecord each ("
+                + (recordNumbers.length + 1) + " calls)", new Search() {
+            @Override
+            public void search() throws Exception {
+                for (long recordNumber :
+                        databaseAccessRemote.findByCriteria(
+                                new String[]{null})) {
+                    databaseAccessRemote.readRecord(recordNumber);
+                }
+            }
+        });
+        run("findByCriteria + readRecords (2 calls)", new Search() {
+            @Override
+            public void search() throws Exception {
+                databaseAccessRemote.readRecords(
+                        databaseAccessRemote.findByCriteria(
+                                new String[]{null}));
+            }
+        });
+
+        run("findAndRead (1 call)", new Search() {
+            @Override
+            public void search() throws Exception {
+                databaseAccessRemote.findAndRead(new String[]{null});
+            }
+        });
+
+        run("readAllRecords (1 call)", new Search() {
+            @Override
+            public void search() throws Exception {
+                databaseAccessRemote.readAllRecords(0, 0);
+            }
+        });
+
+        System.exit(0);
+    }
+
+    private static void run(String name, Search search) throws Exception {
+
+        execute(search, WARM_UP_MILLISECONDS);
+        long searches = execute(search, MEASUREMENT_MILLISECONDS);
+
+        System.out.println(name + ": "
+                + (searches * 1000 / MEASUREMENT_MILLISECONDS)
+                + " searches/sec");
+    }
+
+    private static long execute(Search search, long milliseconds)
+            throws Exception {
+
+        long searches = 0;
+        long endTime = System.currentTimeMillis() + milliseconds;
+
+        while (System.currentTimeMillis() < endTime) {
+            search.search();
+            searches++;
+        }
+
+        return searches;
+    }
+
+    private interface Search {
+        void search() throws Exception;
+    }
+}
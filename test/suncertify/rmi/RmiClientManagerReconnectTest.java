@@ -0,0 +1,107 @@
+package suncertify.rmi;
+
+import suncertify.utilities.UrlyBirdApplicationConstants;
+import suncertify.utilities.UrlyBirdApplicationObjectsFactory;
+
+import java.rmi.Naming;
+import java.rmi.RemoteException;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.server.UnicastRemoteObject;
+
+/**
+ * Tests that the Networked Client keeps one connection to the server, and
+ * reconnects to it when the server is restarted. The server is started in this
+ * process, on the host and port in the {@code suncertify.properties} file, and
+ * restarted by binding a new {@code DatabaseAccessRemoteImpl} and unexporting
+ * the old one. A call on the cached {@code DatabaseAccessRemote} must still
+ * succeed after a restart, and after the server has been down for a while.
+ * When the server does not come back, the call must fail once the client has
+ * given up looking it up again.
+ * <p/>
+ * Nothing is written, so it can be run against the database file named in the
+ * {@code suncertify.properties} file.
+ *
+ * @author Luke GJ Potter
+ * @since 18/10/2026
+ */
+class RmiClientManagerReconnectTest {
+
+    private static final long SERVER_DOWN_MILLISECONDS = 300;
+
+    private static DatabaseAccessRemoteImpl server;
+
+    public static void main(String[] args) throws Exception {
+
+        LocateRegistry.createRegistry(Integer.parseInt(
+                UrlyBirdApplicationObjectsFactory
+                        .getUrlyBirdApplicationProperties()
+                        .getProperty(UrlyBirdApplicationConstants
+                                .PROPERTY_FILE_KEY_RMI_PORT_NUMBER)));
+        startServer();
+
+        DatabaseAccessRemote databaseAccessRemote =
+                RmiClientManager.connectToRemoteServerViaRmi();
+        System.out.println("Same connection: " + (databaseAccessRemote
+                == RmiClientManager.connectToRemoteServerViaRmi())
+                + ", records: " + countRecords(databaseAccessRemote)
+                + ", reconnects: " + RmiClientManager.getNumberOfReconnects());
+
+        stopServer();
+        startServer();
+        System.out.println("After a restart, records: "
+                + countRecords(databaseAccessRemote)
+                + ", reconnects: " + RmiClientManager.getNumberOfReconnects());
+
+        stopServer();
+        Thread restartThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(SERVER_DOWN_MILLISECONDS);
+                    startServer();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        restartThread.start();
+        System.out.println("After the server was down, records: "
+                + countRecords(databaseAccessRemote)
+                + ", reconnects: " + RmiClientManager.getNumberOfReconnects());
+        restartThread.join();
+
+        stopServer();
+        long startTime = System.currentTimeMillis();
+        try {
+            countRecords(databaseAccessRemote);
+            System.out.println("The server did not come back, but the call"
+                    + " succeeded.");
+        } catch (RemoteException e) {
+            System.out.println("The server did not come back, the call"
+                    + " failed after "
+                    + (System.currentTimeMillis() - startTime) + " ms with "
+                    + e.getClass().getSimpleName() + ", reconnects: "
+                    + RmiClientManager.getNumberOfReconnects());
+        }
+
+        System.exit(0);
+    }
+
+    private static int countRecords(DatabaseAccessRemote databaseAccessRemote)
+            throws RemoteException {
+
+        return databaseAccessRemote.findByCriteria(new String[]{null}).length;
+    }
+
+    private static void startServer() throws Exception {
+
+        server = new DatabaseAccessRemoteImpl();
+        Naming.rebind(RmiUtils.formRmiUrl(), server);
+    }
+
+    private static void stopServer() throws Exception {
+
+        Naming.unbind(RmiUtils.formRmiUrl());
+        UnicastRemoteObject.unexportObject(server, true);
+    }
+}